@@ -0,0 +1,75 @@
+package me.subhas.sms.student.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import me.subhas.sms.student.StudentServiceApplication;
+import me.subhas.sms.student.business.BatchItemResult;
+import me.subhas.sms.student.business.StudentService;
+import me.subhas.sms.student.data.entity.Student;
+
+/**
+ * Boots the student service without a web server against an in-memory H2
+ * database in PostgreSQL mode, so benchmarks exercise the real Spring, JPA and
+ * cache wiring without an external database.
+ */
+final class EmbeddedStudentService {
+    private static final int SEED_CHUNK = 1000;
+
+    private EmbeddedStudentService() {
+    }
+
+    static ConfigurableApplicationContext start(String database, String... overrides) {
+	SpringApplication application = new SpringApplication(StudentServiceApplication.class);
+	application.setWebApplicationType(WebApplicationType.NONE);
+	application.setBannerMode(Banner.Mode.OFF);
+	application.setLogStartupInfo(false);
+	String[] args = Stream.concat(arguments(database).stream(), Stream.of(overrides)).toArray(String[]::new);
+	return application.run(args);
+    }
+
+    /**
+     * Command line arguments pointing the service at the named in-memory database.
+     */
+    static List<String> arguments(String database) {
+	return List.of(
+		"--spring.datasource.url=jdbc:h2:mem:" + database
+			+ ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+		"--spring.datasource.username=sa", "--spring.datasource.password=",
+		"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"--spring.jpa.show-sql=false", "--spring.jpa.properties.hibernate.format_sql=false",
+		"--logging.level.root=WARN");
+    }
+
+    /**
+     * Inserts {@code count} synthetic students through the batch path and returns
+     * their ids.
+     */
+    static long[] seed(StudentService studentService, int count) {
+	long[] ids = new long[count];
+	int seeded = 0;
+	while (seeded < count) {
+	    int chunk = Math.min(SEED_CHUNK, count - seeded);
+	    List<Student> students = new ArrayList<>(chunk);
+	    for (int i = 0; i < chunk; i++) {
+		students.add(student(seeded + i));
+	    }
+	    for (BatchItemResult result : studentService.createStudents(students)) {
+		ids[seeded++] = result.id();
+	    }
+	}
+	return ids;
+    }
+
+    static Student student(long n) {
+	return new Student("Student " + n, "student" + n + "@bench.school.com",
+		LocalDate.of(1990, 1, 1).plusDays(n % 7300));
+    }
+}
@@ -0,0 +1,85 @@
+package me.subhas.sms.student.benchmark;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import me.subhas.sms.student.business.DobRange;
+import me.subhas.sms.student.business.StudentField;
+import me.subhas.sms.student.business.StudentPage;
+import me.subhas.sms.student.business.StudentService;
+
+/**
+ * Listing cost as the table grows: the first keyset page should stay flat while
+ * a full walk or stream scales with the number of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListStudentsBenchmark {
+    private static final Set<StudentField> ID_AND_NAME = EnumSet.of(StudentField.ID, StudentField.NAME);
+
+    @Param({ "1000", "10000", "100000" })
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+
+    @Setup(Level.Trial)
+    public void start() {
+	context = EmbeddedStudentService.start("list_" + tableSize);
+	studentService = context.getBean(StudentService.class);
+	EmbeddedStudentService.seed(studentService, tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+	context.close();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public StudentPage firstPage() {
+	return studentService.listStudents(null, StudentService.DEFAULT_PAGE_SIZE);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public StudentPage firstPageIdAndName() {
+	return studentService.listStudents(null, StudentService.DEFAULT_PAGE_SIZE, DobRange.UNBOUNDED, ID_AND_NAME);
+    }
+
+    @Benchmark
+    public void keysetWalk(Blackhole blackhole) {
+	Long after = null;
+	do {
+	    StudentPage page = studentService.listStudents(after, StudentService.MAX_PAGE_SIZE);
+	    blackhole.consume(page.students());
+	    after = page.next();
+	} while (after != null);
+    }
+
+    @Benchmark
+    public void stream(Blackhole blackhole) {
+	studentService.streamStudents(blackhole::consume);
+    }
+}
@@ -0,0 +1,148 @@
+package me.subhas.sms.student.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import me.subhas.sms.student.StudentServiceApplication;
+
+/**
+ * Time from launching a fresh JVM to the first answered request, with the
+ * {@code prod} profile against an in-memory H2 database. Each measurement
+ * starts a new service process on the benchmark's jar classpath. The
+ * {@code cds} modes first run a training process to record a class-data
+ * archive; the {@code aot} modes need the AOT-processed service jar, installed
+ * with {@code -Pfast-startup}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+    private static final String AOT_INITIALIZER = StudentServiceApplication.class.getName()
+	    + "__ApplicationContextInitializer";
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    @Param({ "jit", "cds", "aot", "aot-cds" })
+    public String mode;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private Path workDirectory;
+    private List<String> jvmOptions;
+    private Process service;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+	workDirectory = Files.createTempDirectory("student-startup");
+	jvmOptions = new ArrayList<>();
+	if (mode.startsWith("aot")) {
+	    try {
+		Class.forName(AOT_INITIALIZER);
+	    } catch (ClassNotFoundException ex) {
+		throw new IllegalStateException("Install the service with -Pfast-startup to benchmark AOT", ex);
+	    }
+	    jvmOptions.add("-Dspring.aot.enabled=true");
+	}
+	if (mode.endsWith("cds")) {
+	    Path archive = workDirectory.resolve("student-service.jsa");
+	    List<String> training = new ArrayList<>(jvmOptions);
+	    training.add("-XX:ArchiveClassesAtExit=" + archive);
+	    training.add("-Xlog:cds=error");
+	    training.add("-Dspring.context.exit=onRefresh");
+	    Process trainingRun = launch(training, "training");
+	    if (!trainingRun.waitFor(2, TimeUnit.MINUTES) || trainingRun.exitValue() != 0 || !Files.exists(archive)) {
+		trainingRun.destroyForcibly();
+		throw new IllegalStateException("CDS training run failed, see " + workDirectory);
+	    }
+	    jvmOptions.add("-XX:SharedArchiveFile=" + archive);
+	}
+    }
+
+    @Benchmark
+    public int firstRequest() throws Exception {
+	int port = freePort();
+	service = launch(jvmOptions, "service", "--server.port=" + port);
+	HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/students?size=1"))
+		.build();
+	long deadline = System.nanoTime() + TIMEOUT_NANOS;
+	while (true) {
+	    try {
+		return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	    } catch (ConnectException ex) {
+		if (!service.isAlive() || System.nanoTime() > deadline) {
+		    throw new IllegalStateException("Service did not start, see " + workDirectory, ex);
+		}
+		Thread.sleep(5);
+	    }
+	}
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopService() throws InterruptedException {
+	if (service != null) {
+	    service.destroy();
+	    service.waitFor();
+	    service = null;
+	}
+    }
+
+    private Process launch(List<String> options, String name, String... args) throws IOException {
+	List<String> command = new ArrayList<>();
+	command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+	command.addAll(options);
+	command.add("-cp");
+	command.add(jarClassPath());
+	command.add(StudentServiceApplication.class.getName());
+	command.addAll(EmbeddedStudentService.arguments("startup"));
+	command.add("--spring.profiles.active=prod");
+	command.addAll(List.of(args));
+	return new ProcessBuilder(command).redirectErrorStream(true)
+		.redirectOutput(workDirectory.resolve(name + ".log").toFile()).start();
+    }
+
+    /**
+     * The benchmark's own class path without directories, which CDS cannot
+     * archive from.
+     */
+    private static String jarClassPath() {
+	List<String> jars = new ArrayList<>();
+	for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+	    if (entry.endsWith(".jar")) {
+		jars.add(entry);
+	    }
+	}
+	return String.join(File.pathSeparator, jars);
+    }
+
+    private static int freePort() throws IOException {
+	try (ServerSocket socket = new ServerSocket(0)) {
+	    return socket.getLocalPort();
+	}
+    }
+}
@@ -0,0 +1,89 @@
+package me.subhas.sms.student.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import me.subhas.sms.student.data.entity.Student;
+
+/**
+ * Encode and decode cost of a 100-student page in each media type
+ * {@code StudentController} can produce. The {@code pageBytes} counter reports
+ * the payload size of every format next to its timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentEncodingBenchmark {
+    @Param({ "json", "cbor", "smile" })
+    private String format;
+
+    private ObjectWriter pageWriter;
+    private ObjectReader pageReader;
+    private List<Student> page;
+    private byte[] encodedPage;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+	public long pageBytes;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+	Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+		.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	switch (format) {
+	case "cbor" -> builder.factory(new CBORFactory());
+	case "smile" -> builder.factory(new SmileFactory());
+	default -> {
+	}
+	}
+	ObjectMapper mapper = builder.build();
+	pageWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Student.class));
+	pageReader = mapper.readerFor(mapper.getTypeFactory().constructCollectionType(List.class, Student.class));
+	page = new ArrayList<>();
+	for (int i = 0; i < 100; i++) {
+	    Student student = EmbeddedStudentService.student(i);
+	    student.setId((long) i);
+	    page.add(student);
+	}
+	encodedPage = pageWriter.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encodePage(PayloadSize size) throws Exception {
+	byte[] encoded = pageWriter.writeValueAsBytes(page);
+	size.pageBytes = encoded.length;
+	return encoded;
+    }
+
+    @Benchmark
+    public List<Student> decodePage() throws Exception {
+	return pageReader.readValue(encodedPage);
+    }
+}
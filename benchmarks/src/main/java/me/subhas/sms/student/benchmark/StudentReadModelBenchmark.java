@@ -0,0 +1,129 @@
+package me.subhas.sms.student.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import me.subhas.sms.student.business.StudentPage;
+import me.subhas.sms.student.business.StudentReadModel;
+import me.subhas.sms.student.business.StudentService;
+import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * Reads of {@link StudentService} with and without the in-memory read model,
+ * with the student cache off so that every lookup reaches one or the other.
+ * With the read model on, the setup also prints the heap it retains per
+ * student, measured as the difference in used heap after a full collection
+ * before and after building a second copy. H2 hands out the String instances
+ * it holds itself, so the second copy is fed copies of every string; otherwise
+ * the strings would be counted for neither copy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentReadModelBenchmark {
+    private static final int TABLE_SIZE = 100_000;
+
+    @Param({ "true", "false" })
+    public boolean readModel;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void start() {
+	context = EmbeddedStudentService.start("read_model_" + readModel, "--spring.cache.type=none",
+		"--student.read-model.enabled=" + readModel);
+	studentService = context.getBean(StudentService.class);
+	ids = EmbeddedStudentService.seed(studentService, TABLE_SIZE);
+	if (readModel) {
+	    context.getBean(StudentReadModel.class).rebuild();
+	    printBytesPerStudent();
+	}
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+	context.close();
+    }
+
+    @Benchmark
+    public Optional<StudentView> getStudent() {
+	return studentService.findStudent(ids[randomIndex()]);
+    }
+
+    @Benchmark
+    public Optional<StudentView> getStudentByEmail() {
+	return studentService.findStudentByEmail(EmbeddedStudentService.student(randomIndex()).getEmail());
+    }
+
+    @Benchmark
+    public StudentPage listPage() {
+	return studentService.listStudents(ids[randomIndex()], StudentService.DEFAULT_PAGE_SIZE);
+    }
+
+    private void printBytesPerStudent() {
+	StudentRepository repository = context.getBean(StudentRepository.class);
+	StudentRepository unshared = (StudentRepository) Proxy.newProxyInstance(
+		StudentRepository.class.getClassLoader(), new Class<?>[] { StudentRepository.class },
+		(proxy, method, args) -> method.getName().equals("streamViews")
+			? repository.streamViews().map(StudentReadModelBenchmark::copyStrings)
+			: method.invoke(repository, args));
+	StudentReadModel copy = new StudentReadModel(unshared, context.getBean(StudentShards.class), true,
+		Duration.ofDays(1));
+	long before = usedHeap();
+	copy.rebuild();
+	long after = usedHeap();
+	System.out.printf("Read model: %d students, %d bytes each%n", copy.size(), (after - before) / copy.size());
+	Reference.reachabilityFence(copy);
+    }
+
+    private static StudentView copyStrings(StudentView student) {
+	return new StudentView(student.id(), copy(student.name()), copy(student.email()), student.dob(),
+		student.version());
+    }
+
+    /**
+     * A string with its own backing array, which {@code new String(String)}
+     * would share.
+     */
+    private static String copy(String value) {
+	return value == null ? null : new String(value.toCharArray());
+    }
+
+    private static long usedHeap() {
+	for (int i = 0; i < 3; i++) {
+	    System.gc();
+	}
+	return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static int randomIndex() {
+	return ThreadLocalRandom.current().nextInt(TABLE_SIZE);
+    }
+}
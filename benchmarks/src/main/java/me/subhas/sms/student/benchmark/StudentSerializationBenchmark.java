@@ -0,0 +1,72 @@
+package me.subhas.sms.student.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import me.subhas.sms.student.data.entity.Student;
+
+/**
+ * Jackson encoding of {@link Student} as configured by Spring Boot, and the
+ * age computation that runs on every serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentSerializationBenchmark {
+    private ObjectWriter studentWriter;
+    private ObjectWriter pageWriter;
+    private Student student;
+    private List<Student> page;
+
+    @Setup
+    public void setUp() {
+	Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+		.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	studentWriter = builder.build().writerFor(Student.class);
+	pageWriter = builder.build().writerFor(List.class);
+	student = new Student(42L, "Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10));
+	page = new ArrayList<>();
+	for (int i = 0; i < 100; i++) {
+	    Student pageStudent = EmbeddedStudentService.student(i);
+	    pageStudent.setId((long) i);
+	    page.add(pageStudent);
+	}
+    }
+
+    @Benchmark
+    public Integer age() {
+	return student.getAge();
+    }
+
+    @Benchmark
+    public byte[] serializeStudent() throws JsonProcessingException {
+	return studentWriter.writeValueAsBytes(student);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public byte[] serializePage() throws JsonProcessingException {
+	return pageWriter.writeValueAsBytes(page);
+    }
+}
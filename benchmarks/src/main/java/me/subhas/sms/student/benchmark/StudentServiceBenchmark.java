@@ -0,0 +1,78 @@
+package me.subhas.sms.student.benchmark;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import me.subhas.sms.student.business.StudentService;
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * Single-student operations of {@link StudentService} against the embedded
+ * database, with and without the student cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StudentServiceBenchmark {
+    private static final int TABLE_SIZE = 10_000;
+
+    @Param({ "caffeine", "none" })
+    public String cacheType;
+
+    private ConfigurableApplicationContext context;
+    private StudentService studentService;
+    private long[] ids;
+    private final AtomicLong created = new AtomicLong(TABLE_SIZE);
+    private final AtomicLong updated = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void start() {
+	context = EmbeddedStudentService.start("service_" + cacheType, "--spring.cache.type=" + cacheType);
+	studentService = context.getBean(StudentService.class);
+	ids = EmbeddedStudentService.seed(studentService, TABLE_SIZE);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+	context.close();
+    }
+
+    @Benchmark
+    public Optional<StudentView> getStudent() {
+	return studentService.findStudent(randomId());
+    }
+
+    @Benchmark
+    public void createStudent() {
+	studentService.createStudent(EmbeddedStudentService.student(created.getAndIncrement()));
+    }
+
+    @Benchmark
+    public void updateStudent() {
+	studentService.updateStudent(randomId(), "Renamed " + updated.getAndIncrement(), null);
+    }
+
+    private long randomId() {
+	return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+}
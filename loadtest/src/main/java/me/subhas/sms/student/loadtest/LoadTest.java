@@ -0,0 +1,254 @@
+package me.subhas.sms.student.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.Banner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import me.subhas.sms.student.StudentServiceApplication;
+import me.subhas.sms.student.business.StudentPage;
+import me.subhas.sms.student.business.StudentService;
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * End-to-end load test of the student API. Starts the service on a random
+ * port against an in-memory H2 database seeded by the {@code dev} profile,
+ * then sends a weighted mix of {@link Scenario}s at a fixed rate for a warmup
+ * and a measured period.
+ * <p>
+ * The generator follows an open model: requests go out on schedule whether or
+ * not earlier ones have completed, and latency is measured from the scheduled
+ * send time, so a stalled service shows up in the percentiles instead of
+ * slowing the generator down (coordinated omission). Requests that would
+ * exceed {@code maxInFlight} are counted as dropped.
+ * <p>
+ * Arguments are {@code key=value} pairs, see {@link #DEFAULTS}; arguments
+ * starting with {@code --} are passed to the service, e.g.
+ * {@code --spring.profiles.active=dev,virtual}. Besides the summary on
+ * standard output, the full latency distribution of each scenario is written
+ * to {@code <report>/<scenario>.hgrm} for plotting or comparing runs.
+ */
+public final class LoadTest {
+    private static final Map<String, String> DEFAULTS = Map.of("students", "10000", "rate", "500", "warmup", "10s",
+	    "duration", "30s", "mix", "get:60,list:15,search:10,create:10,update:5", "maxInFlight", "2000", "report",
+	    "target/loadtest");
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final URI base;
+    private final long[] ids;
+    private final Scenario[] wheel;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private long sequence;
+
+    private LoadTest(URI base, long[] ids, Scenario[] wheel, int maxInFlight) {
+	this.base = base;
+	this.ids = ids;
+	this.wheel = wheel;
+	this.maxInFlight = maxInFlight;
+    }
+
+    public static void main(String[] args) throws Exception {
+	Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+	List<String> serviceArgs = new ArrayList<>();
+	for (String arg : args) {
+	    if (arg.startsWith("--")) {
+		serviceArgs.add(arg);
+	    } else if (arg.contains("=") && DEFAULTS.containsKey(arg.substring(0, arg.indexOf('=')))) {
+		options.put(arg.substring(0, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+	    } else {
+		throw new IllegalArgumentException("Unknown argument " + arg + ", expected one of " + DEFAULTS.keySet());
+	    }
+	}
+	int students = Integer.parseInt(options.get("students"));
+	int rate = Integer.parseInt(options.get("rate"));
+	Duration warmup = DurationStyle.detectAndParse(options.get("warmup"));
+	Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+
+	try (ConfigurableApplicationContext context = start(students, serviceArgs)) {
+	    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+	    LoadTest test = new LoadTest(URI.create("http://localhost:" + port + "/api/v1/"),
+		    seededIds(context.getBean(StudentService.class)), wheel(options.get("mix")),
+		    Integer.parseInt(options.get("maxInFlight")));
+	    System.out.printf("Seeded %d students, %d req/s, mix %s%n", test.ids.length, rate, options.get("mix"));
+
+	    test.run(rate, warmup);
+	    Map<Scenario, Stats> stats = test.run(rate, duration);
+	    report(stats, duration, Path.of(options.get("report")));
+	}
+    }
+
+    private static ConfigurableApplicationContext start(int students, List<String> serviceArgs) {
+	List<String> args = new ArrayList<>(List.of(
+		"--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE",
+		"--spring.datasource.username=sa", "--spring.datasource.password=",
+		"--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"--spring.jpa.show-sql=false", "--spring.jpa.properties.hibernate.format_sql=false",
+		"--spring.jpa.properties.hibernate.generate_statistics=false", "--logging.level.root=WARN",
+		"--server.port=0", "--spring.profiles.active=dev", "--student.seed.count=" + students));
+	args.addAll(serviceArgs);
+	SpringApplication application = new SpringApplication(StudentServiceApplication.class);
+	application.setBannerMode(Banner.Mode.OFF);
+	application.setLogStartupInfo(false);
+	return application.run(args.toArray(String[]::new));
+    }
+
+    private static long[] seededIds(StudentService studentService) {
+	List<Long> ids = new ArrayList<>();
+	StudentPage page = studentService.listStudents(null, StudentService.MAX_PAGE_SIZE);
+	while (true) {
+	    for (StudentView student : page.students()) {
+		ids.add(student.id());
+	    }
+	    if (page.next() == null) {
+		break;
+	    }
+	    page = studentService.listStudents(page.next(), StudentService.MAX_PAGE_SIZE);
+	}
+	if (ids.isEmpty()) {
+	    throw new IllegalStateException("No students were seeded");
+	}
+	return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * One slot per unit of weight, so that a random slot picks each scenario
+     * with its share of the mix.
+     */
+    private static Scenario[] wheel(String mix) {
+	List<Scenario> slots = new ArrayList<>();
+	for (String entry : mix.split(",")) {
+	    String[] parts = entry.trim().split(":");
+	    Scenario scenario = Scenario.valueOf(parts[0].trim().toUpperCase());
+	    for (int i = Integer.parseInt(parts[1].trim()); i > 0; i--) {
+		slots.add(scenario);
+	    }
+	}
+	if (slots.isEmpty()) {
+	    throw new IllegalArgumentException("Empty mix " + mix);
+	}
+	return slots.toArray(Scenario[]::new);
+    }
+
+    private Map<Scenario, Stats> run(int rate, Duration duration) throws InterruptedException {
+	Map<Scenario, Stats> stats = new EnumMap<>(Scenario.class);
+	for (Scenario scenario : Scenario.values()) {
+	    stats.put(scenario, new Stats());
+	}
+	long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+	long start = System.nanoTime();
+	long end = start + duration.toNanos();
+	for (long i = 0;; i++) {
+	    long scheduled = start + i * intervalNanos;
+	    if (scheduled >= end) {
+		break;
+	    }
+	    long wait = scheduled - System.nanoTime();
+	    if (wait > 0) {
+		LockSupport.parkNanos(wait);
+	    }
+	    Scenario scenario = wheel[ThreadLocalRandom.current().nextInt(wheel.length)];
+	    Stats scenarioStats = stats.get(scenario);
+	    if (inFlight.incrementAndGet() > maxInFlight) {
+		inFlight.decrementAndGet();
+		scenarioStats.dropped.increment();
+		continue;
+	    }
+	    httpClient.sendAsync(scenario.request(base, ids, sequence++), HttpResponse.BodyHandlers.discarding())
+		    .whenComplete((response, failure) -> {
+			inFlight.decrementAndGet();
+			scenarioStats.record(System.nanoTime() - scheduled, response == null ? 0 : response.statusCode());
+		    });
+	}
+	long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+	while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+	    Thread.sleep(10);
+	}
+	return stats;
+    }
+
+    private static void report(Map<Scenario, Stats> stats, Duration duration, Path directory) throws IOException {
+	Files.createDirectories(directory);
+	double seconds = duration.toMillis() / 1000.0;
+	System.out.printf("%-8s %8s %9s %8s %8s %9s %9s %9s %9s%n", "scenario", "count", "req/s", "errors", "dropped",
+		"p50 ms", "p99 ms", "p99.9 ms", "max ms");
+	Histogram all = new Histogram(3);
+	for (Map.Entry<Scenario, Stats> entry : stats.entrySet()) {
+	    Stats scenarioStats = entry.getValue();
+	    Histogram latency = scenarioStats.latency;
+	    if (latency.getTotalCount() == 0 && scenarioStats.dropped.sum() == 0) {
+		continue;
+	    }
+	    all.add(latency);
+	    print(entry.getKey().name().toLowerCase(), latency, seconds, scenarioStats.errors(),
+		    scenarioStats.dropped.sum());
+	    System.out.printf("         statuses %s%n", new TreeMap<>(scenarioStats.statuses));
+	    try (PrintStream out = new PrintStream(
+		    Files.newOutputStream(directory.resolve(entry.getKey().name().toLowerCase() + ".hgrm")))) {
+		latency.outputPercentileDistribution(out, MICROS_PER_MILLI);
+	    }
+	}
+	print("total", all, seconds, stats.values().stream().mapToLong(Stats::errors).sum(),
+		stats.values().stream().mapToLong(s -> s.dropped.sum()).sum());
+    }
+
+    private static void print(String name, Histogram latency, double seconds, long errors, long dropped) {
+	System.out.printf("%-8s %8d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f%n", name, latency.getTotalCount(),
+		latency.getTotalCount() / seconds, errors, dropped, millis(latency, 50), millis(latency, 99),
+		millis(latency, 99.9), latency.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private static double millis(Histogram latency, double percentile) {
+	return latency.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    /**
+     * Latencies in microseconds, and response counts by status code, 0 standing
+     * for requests that failed without a response.
+     */
+    private static final class Stats {
+	private final Histogram latency = new ConcurrentHistogram(3);
+	private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+	private final LongAdder dropped = new LongAdder();
+
+	void record(long nanos, int status) {
+	    latency.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+	    statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+	}
+
+	long errors() {
+	    long errors = 0;
+	    for (Map.Entry<Integer, LongAdder> entry : statuses.entrySet()) {
+		if (entry.getKey() < 200 || entry.getKey() >= 400) {
+		    errors += entry.getValue().sum();
+		}
+	    }
+	    return errors;
+	}
+    }
+}
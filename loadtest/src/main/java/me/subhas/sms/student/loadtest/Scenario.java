@@ -0,0 +1,83 @@
+package me.subhas.sms.student.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The requests the load test mixes, each against one {@code StudentController}
+ * endpoint. {@code n} numbers the request within the run, so that created
+ * students get unique emails.
+ */
+enum Scenario {
+    GET {
+	@Override
+	HttpRequest request(URI base, long[] ids, long n) {
+	    return HttpRequest.newBuilder(base.resolve("students/" + randomId(ids))).build();
+	}
+    },
+    /**
+     * Ten random students through the {@code ids} multi-get.
+     */
+    MULTIGET {
+	@Override
+	HttpRequest request(URI base, long[] ids, long n) {
+	    StringJoiner batch = new StringJoiner(",");
+	    for (int i = 0; i < 10; i++) {
+		batch.add(Long.toString(randomId(ids)));
+	    }
+	    return HttpRequest.newBuilder(base.resolve("students?ids=" + batch)).build();
+	}
+    },
+    LIST {
+	@Override
+	HttpRequest request(URI base, long[] ids, long n) {
+	    return HttpRequest.newBuilder(base.resolve("students?size=20&after=" + randomId(ids))).build();
+	}
+    },
+    SEARCH {
+	@Override
+	HttpRequest request(URI base, long[] ids, long n) {
+	    String term = SEARCH_TERMS[ThreadLocalRandom.current().nextInt(SEARCH_TERMS.length)];
+	    return HttpRequest.newBuilder(base.resolve("students/search?limit=20&q=" + term)).build();
+	}
+    },
+    CREATE {
+	@Override
+	HttpRequest request(URI base, long[] ids, long n) {
+	    return HttpRequest.newBuilder(base.resolve("students")).header("Content-Type", "application/json")
+		    .POST(HttpRequest.BodyPublishers.ofString(newStudent(n))).build();
+	}
+    },
+    /**
+     * Creation through the write-behind queue, answered with 202.
+     */
+    ENROLL {
+	@Override
+	HttpRequest request(URI base, long[] ids, long n) {
+	    return HttpRequest.newBuilder(base.resolve("students")).header("Content-Type", "application/json")
+		    .header("Prefer", "respond-async").POST(HttpRequest.BodyPublishers.ofString(newStudent(n)))
+		    .build();
+	}
+    },
+    UPDATE {
+	@Override
+	HttpRequest request(URI base, long[] ids, long n) {
+	    return HttpRequest.newBuilder(base.resolve("students/" + randomId(ids) + "?name=Renamed+" + n))
+		    .PUT(HttpRequest.BodyPublishers.noBody()).build();
+	}
+    };
+
+    private static final String[] SEARCH_TERMS = { "smi", "ana", "xyz", "kumar", "grace", "tan", "li", "zzz" };
+
+    abstract HttpRequest request(URI base, long[] ids, long n);
+
+    private static long randomId(long[] ids) {
+	return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    private static String newStudent(long n) {
+	return "{\"name\":\"Load " + n + "\",\"email\":\"load" + n + "@load.school.com\",\"dob\":\"2000-01-01\"}";
+    }
+}
@@ -0,0 +1,19 @@
+package me.subhas.sms.student;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import me.subhas.sms.student.web.StatementCountFilter;
+
+@Configuration
+public class MetricsConfig {
+    @Bean
+    FilterRegistrationBean<StatementCountFilter> statementCountFilter(MeterRegistry meterRegistry) {
+	FilterRegistrationBean<StatementCountFilter> registration = new FilterRegistrationBean<>(
+		new StatementCountFilter(meterRegistry));
+	registration.addUrlPatterns("/api/*");
+	return registration;
+    }
+}
@@ -1,23 +1,117 @@
 package me.subhas.sms.student;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
 
-import me.subhas.sms.student.data.StudentRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import me.subhas.sms.student.business.StudentService;
 import me.subhas.sms.student.data.entity.Student;
 
+/*
+ * Caching advice wraps the transaction advice so that @CacheEvict runs after
+ * the commit; evicting earlier lets a concurrent read re-cache the old row.
+ * A read that loaded the row before the commit could still put it back after
+ * the eviction, where it would stay for the whole TTL. findStudent closes that
+ * window by holding a placeholder entry while it loads and caching the result
+ * only in place of that placeholder: evicting the id drops the placeholder, so
+ * the load's result is not kept. Writes that bypass the service, such as the
+ * reactive endpoints, evict nothing, and the short TTL bounds how long their
+ * students stay stale.
+ */
 @Configuration
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class StudentConfig {
+    private static final int SEED_CHUNK = 1000;
+    private static final String[] FIRST_NAMES = { "Abc", "Wuv", "Klm", "Ana", "Ben", "Chloe", "Dev", "Emma", "Farid",
+	    "Grace", "Hiro", "Ines", "Jonas", "Kavya", "Liam", "Mei", "Noah", "Olga", "Priya", "Sam" };
+    private static final String[] LAST_NAMES = { "Xyz", "Hij", "Nop", "Smith", "Garcia", "Kumar", "Nguyen", "Okafor",
+	    "Rossi", "Schmidt", "Tanaka", "Silva", "Haddad", "Kowalski", "Larsen", "Moreau", "Novak", "Patel" };
+
+    /**
+     * The student cache also holds ids found missing, stored by Spring as
+     * {@link NullValue}. Those expire after {@code missingTtl}, as they are
+     * only evicted by the creating or deleting of that same id. The clock is the
+     * system ticker unless a {@link Ticker} bean is defined, as tests do.
+     */
+    @Bean
+    CacheManagerCustomizer<CaffeineCacheManager> studentCacheCustomizer(
+	    @Value("${student.cache.maximum-size:10000}") long maximumSize,
+	    @Value("${student.cache.ttl:1m}") Duration ttl,
+	    @Value("${student.cache.missing-ttl:5s}") Duration missingTtl, ObjectProvider<Ticker> ticker) {
+	Expiry<Object, Object> expiry = new Expiry<>() {
+	    @Override
+	    public long expireAfterCreate(Object key, Object value, long currentTime) {
+		return (value instanceof NullValue ? missingTtl : ttl).toNanos();
+	    }
+
+	    @Override
+	    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+		return expireAfterCreate(key, value, currentTime);
+	    }
+
+	    @Override
+	    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+		return currentDuration;
+	    }
+	};
+	return cacheManager -> cacheManager.registerCustomCache(StudentService.STUDENT_CACHE,
+		Caffeine.newBuilder().maximumSize(maximumSize).expireAfter(expiry)
+			.ticker(ticker.getIfAvailable(Ticker::systemTicker)).recordStats().build());
+    }
+
+    /**
+     * {@code student.seed.count} synthetic students for local development and
+     * load tests, inserted once into an empty table. The schema now outlives
+     * restarts, so seeding every start would trip the unique email constraint.
+     * Students are created through the service so that they are spread over the
+     * shards, if there are several.
+     */
     @Bean
-    CommandLineRunner commandLineRunner(StudentRepository studentRepository) {
+    @Profile("dev")
+    CommandLineRunner commandLineRunner(StudentService studentService,
+	    @Value("${student.seed.count:100}") int count) {
 	return args -> {
-	    Student abc = new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10));
-	    Student wuv = new Student("Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15));
-	    studentRepository.saveAll(List.of(abc, wuv));
+	    if (!studentService.listStudents(null, 1).students().isEmpty()) {
+		return;
+	    }
+	    List<Student> chunk = new ArrayList<>(SEED_CHUNK);
+	    for (int n = 0; n < count; n++) {
+		chunk.add(seedStudent(n));
+		if (chunk.size() == SEED_CHUNK || n == count - 1) {
+		    studentService.createStudents(chunk);
+		    chunk.clear();
+		}
+	    }
 	};
     }
+
+    /**
+     * The {@code n}th seeded student. Names combine a few common first and last
+     * names so that search and autocomplete have matches to rank; emails are
+     * unique.
+     */
+    static Student seedStudent(int n) {
+	String first = FIRST_NAMES[n % FIRST_NAMES.length];
+	String last = LAST_NAMES[n / FIRST_NAMES.length % LAST_NAMES.length];
+	String email = (first + "." + last + "." + n + "@school.com").toLowerCase(Locale.ROOT);
+	return new Student(first + " " + last, email, LocalDate.of(1995, 1, 1).plusDays(n * 37L % 3650));
+    }
 }
@@ -0,0 +1,59 @@
+package me.subhas.sms.student;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import me.subhas.sms.student.data.ReplicaRoutingDataSource;
+
+/*
+ * Setting student.datasource.replica.url splits the pool in two: read-only
+ * transactions (the @Transactional(readOnly = true) service reads and Spring
+ * Data's own finders) use the replica, everything else the primary configured
+ * through spring.datasource.*. Without it Boot's single DataSource is left
+ * alone. Cache misses are loaded from the primary whatever the read-your-writes
+ * window, so that the cache never keeps a replica's stale row for its TTL.
+ */
+@Configuration
+@ConditionalOnProperty("student.datasource.replica.url")
+public class StudentDataSourceConfig {
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+	HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	dataSource.setPoolName("student-primary");
+	return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("student.datasource.replica.hikari")
+    HikariDataSource replicaDataSource(@Value("${student.datasource.replica.url}") String url,
+	    @Value("${student.datasource.replica.username:}") String username,
+	    @Value("${student.datasource.replica.password:}") String password) {
+	HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).url(url)
+		.username(username).password(password).build();
+	dataSource.setPoolName("student-replica");
+	dataSource.setReadOnly(true);
+	return dataSource;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+	    @Qualifier("replicaDataSource") DataSource replica,
+	    @Value("${student.datasource.replica.read-your-writes:0s}") Duration readYourWrites) {
+	return ReplicaRoutingDataSource.lazy(primary, replica, readYourWrites);
+    }
+}
@@ -2,8 +2,14 @@ package me.subhas.sms.student;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+/*
+ * R2DBC auto-configuration is excluded because a ConnectionFactory bean makes
+ * the DataSource auto-configuration back off, which would leave JPA without a
+ * DataSource. The reactive read path owns its own pool instead.
+ */
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class StudentServiceApplication {
 
     public static void main(String[] args) {
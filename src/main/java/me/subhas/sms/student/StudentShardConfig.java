@@ -0,0 +1,60 @@
+package me.subhas.sms.student;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import me.subhas.sms.student.data.ShardRoutingDataSource;
+
+/*
+ * Setting student.datasource.shards to a comma-separated list of JDBC URLs
+ * spreads the students over those databases (see StudentShards, which also
+ * caps their number). Every shard gets its own pool, with the credentials and
+ * pool size of spring.datasource.*, and its own Flyway migration. Not to be
+ * combined with student.datasource.replica.url.
+ */
+@Configuration
+@ConditionalOnProperty("student.datasource.shards")
+public class StudentShardConfig {
+    @Bean
+    @Primary
+    ShardRoutingDataSource dataSource(@Value("${student.datasource.shards}") List<String> urls,
+	    @Value("${spring.datasource.username:}") String username,
+	    @Value("${spring.datasource.password:}") String password,
+	    @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize) {
+	List<DataSource> shards = new ArrayList<>(urls.size());
+	for (String url : urls) {
+	    HikariDataSource shard = DataSourceBuilder.create().type(HikariDataSource.class).url(url.trim())
+		    .username(username).password(password).build();
+	    shard.setPoolName("student-shard-" + shards.size());
+	    shard.setMaximumPoolSize(maximumPoolSize);
+	    shards.add(shard);
+	}
+	return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * Boot migrates only the primary DataSource, which would be shard 0; this
+     * applies the same configuration to each shard instead.
+     */
+    @Bean
+    FlywayMigrationStrategy shardMigrationStrategy(ShardRoutingDataSource dataSource) {
+	return flyway -> {
+	    for (DataSource shard : dataSource.getShards()) {
+		Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shard).load().migrate();
+	    }
+	};
+    }
+}
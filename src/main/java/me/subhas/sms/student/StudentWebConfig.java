@@ -0,0 +1,90 @@
+package me.subhas.sms.student;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import me.subhas.sms.student.web.ConcurrencyLimitInterceptor;
+import me.subhas.sms.student.web.ConcurrencyLimiter;
+
+/*
+ * Binary encodings for service-to-service callers, selected through Accept
+ * (application/cbor, application/x-jackson-smile); JSON stays the default.
+ * Spring MVC registers both converters on its own when the data formats are on
+ * the classpath, but with a bare ObjectMapper. Declaring them here replaces
+ * those with mappers built from Boot's Jackson settings, so that dates and
+ * property handling match the JSON representation. Being a WebMvcConfigurer
+ * also brings the converters into @WebMvcTest slices.
+ */
+@Configuration
+public class StudentWebConfig implements WebMvcConfigurer {
+    private final int maxReads;
+    private final int maxWrites;
+    private final Duration queueTimeout;
+    private final Duration retryAfter;
+
+    public StudentWebConfig(@Value("${student.limiter.reads.max-limit:200}") int maxReads,
+	    @Value("${student.limiter.writes.max-limit:50}") int maxWrites,
+	    @Value("${student.limiter.queue-timeout:50ms}") Duration queueTimeout,
+	    @Value("${student.limiter.retry-after:1s}") Duration retryAfter) {
+	this.maxReads = maxReads;
+	this.maxWrites = maxWrites;
+	this.queueTimeout = queueTimeout;
+	this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Serializes every property of types carrying a {@code @JsonFilter} unless
+     * the response names its own filters, as sparse field selections do.
+     */
+    @Bean
+    Jackson2ObjectMapperBuilderCustomizer defaultPropertyFilter() {
+	return builder -> builder
+		.filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+	return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+	return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * Sheds load on the student CRUD endpoints once latency shows the database
+     * falling behind. The change feed and the CSV export hold their requests
+     * open by design and stay outside the limits.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+	registry.addInterceptor(new ConcurrencyLimitInterceptor(readLimiter(), writeLimiter(), retryAfter))
+		.addPathPatterns("/api/v1/students", "/api/v1/students/**")
+		.excludePathPatterns("/api/v1/students/changes/**", "/api/v1/students/export/**");
+    }
+
+    @Bean
+    ConcurrencyLimiter readLimiter() {
+	return new ConcurrencyLimiter("read", 20, maxReads, queueTimeout);
+    }
+
+    @Bean
+    ConcurrencyLimiter writeLimiter() {
+	return new ConcurrencyLimiter("write", 10, maxWrites, queueTimeout);
+    }
+}
@@ -0,0 +1,32 @@
+package me.subhas.sms.student.business;
+
+/**
+ * Outcome of a single row of a batch request. {@code index} is the position of
+ * the row in the request body.
+ */
+public record BatchItemResult(int index, Long id, Status status, String message) {
+
+    public enum Status {
+	CREATED, UPDATED, DELETED, REJECTED
+    }
+
+    public static BatchItemResult created(int index, Long id) {
+	return new BatchItemResult(index, id, Status.CREATED, null);
+    }
+
+    public static BatchItemResult updated(int index, Long id) {
+	return new BatchItemResult(index, id, Status.UPDATED, null);
+    }
+
+    public static BatchItemResult deleted(int index, Long id) {
+	return new BatchItemResult(index, id, Status.DELETED, null);
+    }
+
+    public static BatchItemResult rejected(int index, String message) {
+	return rejected(index, null, message);
+    }
+
+    public static BatchItemResult rejected(int index, Long id, String message) {
+	return new BatchItemResult(index, id, Status.REJECTED, message);
+    }
+}
@@ -0,0 +1,55 @@
+package me.subhas.sms.student.business;
+
+import java.time.LocalDate;
+
+import me.subhas.sms.student.business.exception.InvalidRangeException;
+import me.subhas.sms.student.data.entity.AgeClock;
+
+/**
+ * Inclusive date-of-birth range. Age bounds are translated into this form so
+ * that filtering by age becomes a {@code dob BETWEEN} predicate on the indexed
+ * column instead of computing every student's age.
+ */
+public record DobRange(LocalDate from, LocalDate to) {
+    // Outside of these the column types of some databases overflow.
+    static final LocalDate EARLIEST = LocalDate.of(1, 1, 1);
+    static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+    static final int MAX_AGE = 150;
+
+    public static final DobRange UNBOUNDED = new DobRange(EARLIEST, LATEST);
+
+    public static DobRange of(LocalDate from, LocalDate to) {
+	DobRange range = new DobRange(from == null ? EARLIEST : from, to == null ? LATEST : to);
+	if (range.from().isAfter(range.to())) {
+	    throw new InvalidRangeException("Date of birth range %s to %s is empty".formatted(from, to));
+	}
+	return range;
+    }
+
+    public static DobRange forAges(Integer minAge, Integer maxAge) {
+	return forAges(minAge, maxAge, AgeClock.today());
+    }
+
+    static DobRange forAges(Integer minAge, Integer maxAge, LocalDate today) {
+	if (!isValidAge(minAge) || !isValidAge(maxAge) || (minAge != null && maxAge != null && minAge > maxAge)) {
+	    throw new InvalidRangeException("Age range %s to %s is not valid".formatted(minAge, maxAge));
+	}
+	// Aged at least n means born on or before today minus n years; aged at most n
+	// means born after today minus n + 1 years.
+	LocalDate from = maxAge == null ? EARLIEST : today.minusYears(maxAge + 1L).plusDays(1);
+	LocalDate to = minAge == null ? LATEST : today.minusYears(minAge);
+	return new DobRange(from, to);
+    }
+
+    private static boolean isValidAge(Integer age) {
+	return age == null || (age >= 0 && age <= MAX_AGE);
+    }
+
+    public DobRange intersect(DobRange other) {
+	return of(from.isAfter(other.from()) ? from : other.from(), to.isBefore(other.to()) ? to : other.to());
+    }
+
+    public boolean isUnbounded() {
+	return !from.isAfter(EARLIEST) && !to.isBefore(LATEST);
+    }
+}
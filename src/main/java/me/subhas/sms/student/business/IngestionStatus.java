@@ -0,0 +1,25 @@
+package me.subhas.sms.student.business;
+
+/**
+ * Outcome of a student submitted through {@link StudentIngestion}, as polled by
+ * the client with its tracking id.
+ */
+public record IngestionStatus(String trackingId, State state, Long studentId, String message) {
+    public enum State {
+	PENDING, CREATED, REJECTED
+    }
+
+    static IngestionStatus pending(String trackingId) {
+	return new IngestionStatus(trackingId, State.PENDING, null, null);
+    }
+
+    static IngestionStatus of(String trackingId, BatchItemResult result) {
+	return result.status() == BatchItemResult.Status.CREATED
+		? new IngestionStatus(trackingId, State.CREATED, result.id(), null)
+		: rejected(trackingId, result.message());
+    }
+
+    static IngestionStatus rejected(String trackingId, String message) {
+	return new IngestionStatus(trackingId, State.REJECTED, null, message);
+    }
+}
@@ -0,0 +1,52 @@
+package me.subhas.sms.student.business;
+
+import java.util.Optional;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * Published by {@link StudentService} for every successful write and delivered
+ * to listeners after the transaction commits. For updates, {@code name} and
+ * {@code email} carry the new values and are {@code null} when unchanged.
+ * <p>
+ * Writes that had the whole student at hand also set {@code committed}, with
+ * {@code name} and {@code email} then holding the committed values, so that
+ * listeners can apply the student without reloading it. Single-statement
+ * updates leave it {@code null}. It is left out of the JSON form, which the
+ * change feed sends to clients.
+ */
+public record StudentChangeEvent(Type type, Long id, String name, String email, @JsonIgnore StudentView committed) {
+
+    public enum Type {
+	CREATED, UPDATED, DELETED
+    }
+
+    public static StudentChangeEvent created(Long id, String name, String email) {
+	return new StudentChangeEvent(Type.CREATED, id, name, email, null);
+    }
+
+    public static StudentChangeEvent created(StudentView student) {
+	return new StudentChangeEvent(Type.CREATED, student.id(), student.name(), student.email(), student);
+    }
+
+    public static StudentChangeEvent updated(Long id, String name, String email) {
+	return new StudentChangeEvent(Type.UPDATED, id, name, email, null);
+    }
+
+    public static StudentChangeEvent updated(StudentView student) {
+	return new StudentChangeEvent(Type.UPDATED, student.id(), student.name(), student.email(), student);
+    }
+
+    public static StudentChangeEvent deleted(Long id) {
+	return new StudentChangeEvent(Type.DELETED, id, null, null, null);
+    }
+
+    /**
+     * The committed student, when the event carries all of it.
+     */
+    public Optional<StudentView> student() {
+	return type == Type.DELETED ? Optional.empty() : Optional.ofNullable(committed);
+    }
+}
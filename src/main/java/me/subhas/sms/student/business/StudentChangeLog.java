@@ -0,0 +1,138 @@
+package me.subhas.sms.student.business;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Numbered, in-memory history of committed student changes with live
+ * subscriptions. The most recent {@code retained} changes are kept so that a
+ * subscriber can resume after its last seen id. Every subscriber has its own
+ * bounded queue that is only ever offered to, so a slow consumer is dropped
+ * instead of blocking the committing thread, and resumes from the history when
+ * it reconnects.
+ * <p>
+ * Change ids restart on every start and are not shared between instances, so
+ * each log draws a random epoch that prefixes its {@link Change#eventId() event
+ * ids}. A subscriber that resumes from an id of another epoch is reset.
+ */
+@Component
+public class StudentChangeLog {
+    private final Change[] history;
+    private final int subscriberBuffer;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final String epoch = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+    private long lastId;
+
+    public record Change(String epoch, long id, StudentChangeEvent event) {
+
+	/**
+	 * {@code <epoch>-<id>}, the id to resume from with
+	 * {@link StudentChangeLog#subscribe(String)}.
+	 */
+	public String eventId() {
+	    return epoch + "-" + id;
+	}
+    }
+
+    public StudentChangeLog(@Value("${student.changes.retained:10000}") int retained,
+	    @Value("${student.changes.subscriber-buffer:1000}") int subscriberBuffer) {
+	this.history = new Change[retained];
+	this.subscriberBuffer = subscriberBuffer;
+    }
+
+    public String epoch() {
+	return epoch;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void append(StudentChangeEvent event) {
+	Change change = new Change(epoch, ++lastId, event);
+	history[(int) (change.id() % history.length)] = change;
+	for (Subscription subscription : subscriptions) {
+	    if (!subscription.queue.offer(change)) {
+		subscription.overflowed = true;
+		subscriptions.remove(subscription);
+	    }
+	}
+    }
+
+    /**
+     * Subscribes to the changes after the event id {@code lastSeen}, or to new
+     * changes only when it is {@code null}. Retained changes are queued up front;
+     * when some of the requested changes are no longer retained, or the id is from
+     * another epoch, the subscription starts {@link Subscription#isReset() reset}
+     * and the consumer has to resynchronize from a full listing.
+     */
+    public synchronized Subscription subscribe(String lastSeen) {
+	long oldest = Math.max(1, lastId - history.length + 1);
+	long from = lastSeen == null ? lastId + 1 : parseId(lastSeen) + 1;
+	boolean reset = from < oldest || from > lastId + 1;
+	List<Change> backlog = new ArrayList<>();
+	for (long id = from; !reset && id <= lastId; id++) {
+	    backlog.add(history[(int) (id % history.length)]);
+	}
+	Subscription subscription = new Subscription(Math.max(subscriberBuffer, backlog.size()), reset);
+	subscription.queue.addAll(backlog);
+	subscriptions.add(subscription);
+	return subscription;
+    }
+
+    /**
+     * The change id within this epoch, or {@code -1} for an id of another epoch or
+     * one that is malformed.
+     */
+    private long parseId(String eventId) {
+	int dash = eventId.lastIndexOf('-');
+	if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+	    return -1;
+	}
+	try {
+	    return Long.parseLong(eventId.substring(dash + 1));
+	} catch (NumberFormatException ex) {
+	    return -1;
+	}
+    }
+
+    public final class Subscription implements AutoCloseable {
+	private final BlockingQueue<Change> queue;
+	private final boolean reset;
+	private volatile boolean overflowed;
+
+	private Subscription(int capacity, boolean reset) {
+	    this.queue = new ArrayBlockingQueue<>(capacity);
+	    this.reset = reset;
+	}
+
+	public boolean isReset() {
+	    return reset;
+	}
+
+	/**
+	 * Next change, or {@code null} when none arrived within the timeout. Once the
+	 * subscriber fell behind and the queue is drained, it is over and the consumer
+	 * should reconnect with its last seen id.
+	 */
+	public Change poll(long timeout, TimeUnit unit) throws InterruptedException {
+	    return queue.poll(timeout, unit);
+	}
+
+	public boolean isOverflowed() {
+	    return overflowed && queue.isEmpty();
+	}
+
+	@Override
+	public void close() {
+	    subscriptions.remove(this);
+	}
+    }
+}
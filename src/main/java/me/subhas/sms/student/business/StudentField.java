@@ -0,0 +1,55 @@
+package me.subhas.sms.student.business;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+import me.subhas.sms.student.business.exception.UnknownFieldException;
+
+/**
+ * Fields of the student representation that a client can select with
+ * {@code fields=}, and the entity attribute each one has to be read from.
+ */
+public enum StudentField {
+    ID("id"), NAME("name"), EMAIL("email"), DOB("dob"), AGE("dob");
+
+    public static final Set<StudentField> ALL = Collections.unmodifiableSet(EnumSet.allOf(StudentField.class));
+
+    private final String attribute;
+
+    StudentField(String attribute) {
+	this.attribute = attribute;
+    }
+
+    public String attribute() {
+	return attribute;
+    }
+
+    public String jsonName() {
+	return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses a comma-separated field list such as {@code id,name}; a missing or
+     * blank list selects every field.
+     */
+    public static Set<StudentField> parse(String fields) {
+	if (fields == null || fields.isBlank()) {
+	    return ALL;
+	}
+	Set<StudentField> selected = EnumSet.noneOf(StudentField.class);
+	for (String field : fields.split(",")) {
+	    String name = field.trim();
+	    if (name.isEmpty()) {
+		continue;
+	    }
+	    try {
+		selected.add(valueOf(name.toUpperCase(Locale.ROOT)));
+	    } catch (IllegalArgumentException ex) {
+		throw new UnknownFieldException(String.format("Unknown student field '%s'", name));
+	    }
+	}
+	return selected.isEmpty() || selected.size() == ALL.size() ? ALL : selected;
+    }
+}
@@ -0,0 +1,189 @@
+package me.subhas.sms.student.business;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import me.subhas.sms.student.business.exception.EmailAlreadyTakenException;
+import me.subhas.sms.student.business.exception.ServiceOverloadedException;
+import me.subhas.sms.student.data.entity.Student;
+
+/**
+ * Write-behind creation of students. Submissions go into a bounded queue and
+ * are answered with a tracking id straight away; a single writer thread drains
+ * whatever has queued up, at most {@code maxBatch} at a time, and creates it
+ * through {@link StudentService#createStudents}, so each micro-batch costs one
+ * email lookup, pooled ids and one commit however many clients contributed to
+ * it. When a batch fails as a whole, typically because a concurrent writer
+ * claimed one of its emails, its rows are retried one by one.
+ * <p>
+ * Statuses are kept in memory for {@code statusTtl} after the last change, so
+ * they are lost on restart, as are submissions still queued when the process
+ * is killed; a graceful shutdown drains the queue first.
+ */
+@Component
+public class StudentIngestion implements SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(StudentIngestion.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final StudentService studentService;
+    private final BlockingQueue<Submission> queue;
+    private final int maxBatch;
+    private final Duration retryAfter;
+    private final Cache<String, IngestionStatus> statuses;
+    private volatile boolean running;
+    private Thread writer;
+    private DistributionSummary batchSizes;
+
+    /**
+     * The submitted fields only; every write attempt builds fresh entities, as a
+     * rolled back batch leaves ids on the ones it tried to persist.
+     */
+    private record Submission(String trackingId, String name, String email, LocalDate dob) {
+	Student toStudent() {
+	    return new Student(name, email, dob);
+	}
+    }
+
+    public StudentIngestion(StudentService studentService,
+	    @Value("${student.ingestion.queue-capacity:10000}") int queueCapacity,
+	    @Value("${student.ingestion.max-batch:500}") int maxBatch,
+	    @Value("${student.ingestion.status-ttl:1h}") Duration statusTtl,
+	    @Value("${student.ingestion.retry-after:1s}") Duration retryAfter) {
+	this.studentService = studentService;
+	this.queue = new ArrayBlockingQueue<>(queueCapacity);
+	this.maxBatch = Math.min(maxBatch, StudentService.MAX_BATCH_SIZE);
+	this.retryAfter = retryAfter;
+	this.statuses = Caffeine.newBuilder().expireAfterWrite(statusTtl).build();
+    }
+
+    /**
+     * Queues the student for creation and returns its pending status. Fails with
+     * {@link ServiceOverloadedException} when the queue is full.
+     */
+    public IngestionStatus submit(Student student) {
+	IngestionStatus status = IngestionStatus.pending(UUID.randomUUID().toString());
+	statuses.put(status.trackingId(), status);
+	Submission submission = new Submission(status.trackingId(), student.getName(), student.getEmail(),
+		student.getDob());
+	if (!queue.offer(submission)) {
+	    statuses.invalidate(status.trackingId());
+	    throw new ServiceOverloadedException("Ingestion queue is full, retry later", retryAfter);
+	}
+	return status;
+    }
+
+    public Optional<IngestionStatus> findStatus(String trackingId) {
+	return Optional.ofNullable(statuses.getIfPresent(trackingId));
+    }
+
+    @Override
+    public void start() {
+	running = true;
+	writer = Thread.ofPlatform().name("student-ingestion").daemon().start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+	running = false;
+	if (writer == null) {
+	    return;
+	}
+	try {
+	    writer.join();
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	}
+    }
+
+    @Override
+    public boolean isRunning() {
+	return running;
+    }
+
+    /**
+     * Stops after the web server, so that nothing is queued once the writer has
+     * drained the queue.
+     */
+    @Override
+    public int getPhase() {
+	return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drain() {
+	List<Submission> batch = new ArrayList<>(maxBatch);
+	while (running || !queue.isEmpty()) {
+	    try {
+		Submission first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+		if (first == null) {
+		    continue;
+		}
+		batch.add(first);
+		queue.drainTo(batch, maxBatch - 1);
+		write(batch);
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		return;
+	    } finally {
+		batch.clear();
+	    }
+	}
+    }
+
+    private void write(List<Submission> batch) {
+	if (batchSizes != null) {
+	    batchSizes.record(batch.size());
+	}
+	List<Student> students = new ArrayList<>(batch.size());
+	for (Submission submission : batch) {
+	    students.add(submission.toStudent());
+	}
+	try {
+	    List<BatchItemResult> results = studentService.createStudents(students);
+	    for (int i = 0; i < batch.size(); i++) {
+		String trackingId = batch.get(i).trackingId();
+		statuses.put(trackingId, IngestionStatus.of(trackingId, results.get(i)));
+	    }
+	} catch (RuntimeException ex) {
+	    if (batch.size() > 1) {
+		for (Submission submission : batch) {
+		    write(List.of(submission));
+		}
+		return;
+	    }
+	    String message = ex.getMessage();
+	    if (!(ex instanceof EmailAlreadyTakenException)) {
+		log.warn("Ingestion of a student failed", ex);
+		message = "Student could not be created";
+	    }
+	    statuses.put(batch.get(0).trackingId(), IngestionStatus.rejected(batch.get(0).trackingId(), message));
+	}
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+	Gauge.builder("student.ingestion.queued", queue, BlockingQueue::size)
+		.description("Students waiting to be written").register(registry);
+	batchSizes = DistributionSummary.builder("student.ingestion.batch.size")
+		.description("Students written per ingestion transaction").register(registry);
+    }
+}
@@ -0,0 +1,180 @@
+package me.subhas.sms.student.business;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import me.subhas.sms.student.data.ReplicaRoutingDataSource;
+import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * Batches lookups of single students, in the manner of a DataLoader. The first
+ * caller to find no open batch opens one, waits up to {@code window} for other
+ * callers to add their ids, and then fetches all of them with one IN query on
+ * its own thread; the others wait for their share of the result. A batch that
+ * reaches {@code maxBatch} distinct ids is fetched straight away, and a batch of
+ * one id is fetched with the plain single-row query. A zero window turns
+ * batching off. With several shards, a batch costs one query per shard it
+ * touches, run in parallel.
+ * <p>
+ * A caller that finds no other lookup in flight does not open a batch, and
+ * fetches its id at once: the window is only paid while lookups overlap, when
+ * more of them are likely to follow. The loader is called outside the
+ * cache's compute, so a waiting caller holds no cache lock; readers of the same
+ * id wait for its result through the cache entry that
+ * {@link StudentService#findStudent} put for the load.
+ * <p>
+ * Each lookup is answered exactly as a single-row query would answer it: a
+ * missing id yields an empty result, and a failed query fails every lookup in
+ * the batch. The queries go to the primary, never the read replica, as their
+ * results are cached.
+ */
+@Component
+public class StudentLoader implements MeterBinder {
+    private final StudentRepository studentRepository;
+    private final StudentShards studentShards;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch open;
+    private int inFlight;
+    private DistributionSummary batchSizes;
+
+    /**
+     * Distinct ids waiting to be fetched together; {@code full} is released when
+     * no more ids fit, or at once for a lookup with no others in flight, to cut
+     * the leader's wait short.
+     */
+    private static final class Batch {
+	private final Map<Long, CompletableFuture<Optional<StudentView>>> lookups = new LinkedHashMap<>();
+	private final CountDownLatch full = new CountDownLatch(1);
+    }
+
+    public StudentLoader(StudentRepository studentRepository, StudentShards studentShards,
+	    @Value("${student.loader.window:2ms}") Duration window,
+	    @Value("${student.loader.max-batch:100}") int maxBatch) {
+	this.studentRepository = studentRepository;
+	this.studentShards = studentShards;
+	this.windowNanos = window.toNanos();
+	this.maxBatch = Math.min(Math.max(maxBatch, 1), StudentService.MAX_PAGE_SIZE);
+    }
+
+    public Optional<StudentView> load(Long studentId) {
+	if (windowNanos == 0) {
+	    return findOne(studentId);
+	}
+	Batch batch;
+	boolean leader = false;
+	CompletableFuture<Optional<StudentView>> lookup;
+	lock.lock();
+	try {
+	    inFlight++;
+	    batch = open;
+	    if (batch == null) {
+		batch = new Batch();
+		leader = true;
+		if (inFlight > 1) {
+		    open = batch;
+		} else {
+		    batch.full.countDown();
+		}
+	    }
+	    lookup = batch.lookups.computeIfAbsent(studentId, id -> new CompletableFuture<>());
+	    if (open == batch && batch.lookups.size() == maxBatch) {
+		open = null;
+		batch.full.countDown();
+	    }
+	} finally {
+	    lock.unlock();
+	}
+	try {
+	    if (leader) {
+		awaitWindow(batch);
+		fetch(batch);
+	    }
+	    return lookup.join();
+	} catch (CompletionException ex) {
+	    throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+	} finally {
+	    lock.lock();
+	    try {
+		inFlight--;
+	    } finally {
+		lock.unlock();
+	    }
+	}
+    }
+
+    private void awaitWindow(Batch batch) {
+	try {
+	    batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	}
+	lock.lock();
+	try {
+	    if (open == batch) {
+		open = null;
+	    }
+	} finally {
+	    lock.unlock();
+	}
+    }
+
+    private void fetch(Batch batch) {
+	if (batchSizes != null) {
+	    batchSizes.record(batch.lookups.size());
+	}
+	try {
+	    if (batch.lookups.size() == 1) {
+		Long studentId = batch.lookups.keySet().iterator().next();
+		batch.lookups.get(studentId).complete(findOne(studentId));
+		return;
+	    }
+	    Map<Integer, Set<Long>> byShard = new TreeMap<>();
+	    for (Long studentId : batch.lookups.keySet()) {
+		byShard.computeIfAbsent(studentShards.shardOf(studentId), shard -> new LinkedHashSet<>()).add(studentId);
+	    }
+	    Map<Long, StudentView> found = new HashMap<>();
+	    for (List<StudentView> students : ReplicaRoutingDataSource.onPrimary(() -> studentShards
+		    .readEach(byShard.keySet(), shard -> studentRepository.findViewsByIds(byShard.get(shard))))) {
+		for (StudentView student : students) {
+		    found.put(student.id(), student);
+		}
+	    }
+	    batch.lookups.forEach((id, lookup) -> lookup.complete(Optional.ofNullable(found.get(id))));
+	} catch (RuntimeException ex) {
+	    batch.lookups.values().forEach(lookup -> lookup.completeExceptionally(ex));
+	}
+    }
+
+    private Optional<StudentView> findOne(Long studentId) {
+	return studentShards.readPrimary(studentShards.shardOf(studentId),
+		() -> studentRepository.findViewById(studentId));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+	batchSizes = DistributionSummary.builder("student.loader.batch.size")
+		.description("Student ids fetched per lookup query").register(registry);
+    }
+}
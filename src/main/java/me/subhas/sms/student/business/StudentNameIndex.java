@@ -0,0 +1,271 @@
+package me.subhas.sms.student.business;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
+import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * In-memory prefix index over student names and emails for autocomplete.
+ * Every word of the name, the whole name and the normalized email are kept in
+ * a sorted set as {@code token + '\0' + id}, so a prefix lookup is a range scan
+ * that stops as soon as enough distinct students are found. It is built by a
+ * background thread at startup and then follows committed
+ * {@link StudentChangeEvent}s. It is reconciled with the database every
+ * {@code reconcileInterval}, which picks up writes made on other instances or
+ * through the reactive endpoints.
+ */
+@Component
+public class StudentNameIndex implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(StudentNameIndex.class);
+    private static final char SEPARATOR = '\0';
+
+    private final StudentRepository studentRepository;
+    private final StudentShards studentShards;
+    private final Duration reconcileInterval;
+    private final NavigableSet<String> tokens = new ConcurrentSkipListSet<>();
+    private final Map<Long, Indexed> students = new ConcurrentHashMap<>();
+    private final Object rebuilding = new Object();
+    private Set<Long> touched;
+    private volatile boolean running;
+    private CountDownLatch stopped;
+    private Thread reconciler;
+
+    private record Indexed(String name, String email, List<String> keys) {
+    }
+
+    private record Row(String name, String email) {
+    }
+
+    public StudentNameIndex(StudentRepository studentRepository, StudentShards studentShards,
+	    @Value("${student.name-index.reconcile-interval:10m}") Duration reconcileInterval) {
+	this.studentRepository = studentRepository;
+	this.studentShards = studentShards;
+	this.reconcileInterval = reconcileInterval;
+    }
+
+    /**
+     * Reads every shard and brings the index in line with it. Students changed
+     * while the shards were read are reloaded before the snapshot is applied, as
+     * it may hold them from before the change, and students missing from it are
+     * dropped. The reload runs outside the monitor that committed changes take,
+     * so writers never wait for a query. A student changed during the reload
+     * keeps what its change put in the index; the snapshot may be older.
+     */
+    public void rebuild() {
+	synchronized (rebuilding) {
+	    synchronized (this) {
+		touched = new HashSet<>();
+	    }
+	    try {
+		Map<Long, Row> snapshot = new HashMap<>();
+		for (int shard = 0; shard < studentShards.count(); shard++) {
+		    studentShards.read(shard, () -> {
+			try (Stream<Student> all = studentRepository.streamAll()) {
+			    all.forEach(student -> snapshot.put(student.getId(),
+				    new Row(student.getName(), student.getEmail())));
+			}
+			return null;
+		    });
+		}
+		Set<Long> changed;
+		synchronized (this) {
+		    changed = touched;
+		    touched = new HashSet<>();
+		}
+		Map<Long, StudentView> reloaded = loadAll(changed);
+		for (Long studentId : changed) {
+		    StudentView student = reloaded.get(studentId);
+		    if (student == null) {
+			snapshot.remove(studentId);
+		    } else {
+			snapshot.put(studentId, new Row(student.name(), student.email()));
+		    }
+		}
+		synchronized (this) {
+		    for (Long studentId : new ArrayList<>(students.keySet())) {
+			if (!snapshot.containsKey(studentId) && !touched.contains(studentId)) {
+			    remove(studentId);
+			}
+		    }
+		    snapshot.forEach((studentId, row) -> {
+			Indexed current = students.get(studentId);
+			if (!touched.contains(studentId) && (current == null
+				|| !Objects.equals(current.name(), row.name())
+				|| !Objects.equals(current.email(), row.email()))) {
+			    put(studentId, row.name(), row.email());
+			}
+		    });
+		}
+	    } finally {
+		synchronized (this) {
+		    touched = null;
+		}
+	    }
+	}
+    }
+
+    @Override
+    public void start() {
+	running = true;
+	stopped = new CountDownLatch(1);
+	reconciler = Thread.ofPlatform().name("student-name-index").daemon().start(this::reconcile);
+    }
+
+    @Override
+    public void stop() {
+	running = false;
+	if (reconciler == null) {
+	    return;
+	}
+	stopped.countDown();
+	try {
+	    reconciler.join();
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	}
+    }
+
+    @Override
+    public boolean isRunning() {
+	return running;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onChange(StudentChangeEvent event) {
+	if (touched != null) {
+	    touched.add(event.id());
+	}
+	switch (event.type()) {
+	case CREATED -> put(event.id(), event.name(), event.email());
+	case UPDATED -> update(event.id(), event.name(), event.email());
+	case DELETED -> remove(event.id());
+	}
+    }
+
+    public synchronized void put(Long studentId, String name, String email) {
+	remove(studentId);
+	List<String> keys = new ArrayList<>();
+	if (name != null && !name.isBlank()) {
+	    String[] words = name.trim().toLowerCase(Locale.ROOT).split("\\s+");
+	    for (String word : words) {
+		keys.add(word + SEPARATOR + studentId);
+	    }
+	    if (words.length > 1) {
+		keys.add(String.join(" ", words) + SEPARATOR + studentId);
+	    }
+	}
+	String normalizedEmail = Student.normalizeEmail(email);
+	if (normalizedEmail != null && !normalizedEmail.isEmpty()) {
+	    keys.add(normalizedEmail + SEPARATOR + studentId);
+	}
+	tokens.addAll(keys);
+	students.put(studentId, new Indexed(name, email, keys));
+    }
+
+    /**
+     * Re-indexes a student after a partial update; a {@code null} name or email
+     * keeps the indexed value.
+     */
+    public synchronized void update(Long studentId, String name, String email) {
+	Indexed current = students.get(studentId);
+	if (current != null) {
+	    put(studentId, name == null ? current.name() : name, email == null ? current.email() : email);
+	}
+    }
+
+    public synchronized void remove(Long studentId) {
+	Indexed previous = students.remove(studentId);
+	if (previous != null) {
+	    tokens.removeAll(previous.keys());
+	}
+    }
+
+    private void reconcile() {
+	while (running) {
+	    try {
+		rebuild();
+	    } catch (RuntimeException ex) {
+		log.warn("Could not rebuild the student name index", ex);
+	    }
+	    try {
+		stopped.await(reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		return;
+	    }
+	}
+    }
+
+    /**
+     * The students among {@code studentIds} that still exist, with one IN query
+     * per shard and chunk of {@link StudentService#MAX_PAGE_SIZE} ids.
+     */
+    private Map<Long, StudentView> loadAll(Set<Long> studentIds) {
+	Map<Integer, List<Long>> byShard = new TreeMap<>();
+	for (Long studentId : studentIds) {
+	    byShard.computeIfAbsent(studentShards.shardOf(studentId), shard -> new ArrayList<>()).add(studentId);
+	}
+	Map<Long, StudentView> found = new HashMap<>();
+	byShard.forEach((shard, ids) -> {
+	    for (int from = 0; from < ids.size(); from += StudentService.MAX_PAGE_SIZE) {
+		List<Long> chunk = ids.subList(from, Math.min(from + StudentService.MAX_PAGE_SIZE, ids.size()));
+		for (StudentView student : studentShards.read(shard, () -> studentRepository.findViewsByIds(chunk))) {
+		    found.put(student.id(), student);
+		}
+	    }
+	});
+	return found;
+    }
+
+    /**
+     * Returns up to {@code limit} students having a name word or email that starts
+     * with {@code prefix}, ordered by the matching token.
+     */
+    public List<StudentSuggestion> suggest(String prefix, int limit) {
+	String from = prefix == null ? "" : prefix.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+	if (from.isEmpty()) {
+	    return List.of();
+	}
+	Set<Long> matches = new LinkedHashSet<>();
+	for (String key : tokens.subSet(from, true, from + Character.MAX_VALUE, false)) {
+	    matches.add(Long.valueOf(key.substring(key.lastIndexOf(SEPARATOR) + 1)));
+	    if (matches.size() == limit) {
+		break;
+	    }
+	}
+	List<StudentSuggestion> suggestions = new ArrayList<>(matches.size());
+	for (Long studentId : matches) {
+	    Indexed indexed = students.get(studentId);
+	    if (indexed != null) {
+		suggestions.add(new StudentSuggestion(studentId, indexed.name()));
+	    }
+	}
+	return suggestions;
+    }
+}
@@ -0,0 +1,12 @@
+package me.subhas.sms.student.business;
+
+import java.util.List;
+
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * One page of a keyset (seek-on-id) listing. {@code next} is the id to pass as
+ * the cursor for the following page, or {@code null} when this is the last one.
+ */
+public record StudentPage(List<StudentView> students, Long next) {
+}
@@ -0,0 +1,8 @@
+package me.subhas.sms.student.business;
+
+/**
+ * Row of a bulk update. A {@code null} or blank name or email leaves that field
+ * unchanged.
+ */
+public record StudentPatch(Long id, String name, String email) {
+}
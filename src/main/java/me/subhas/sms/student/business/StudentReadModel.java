@@ -0,0 +1,461 @@
+package me.subhas.sms.student.business;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
+import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * Optional in-memory copy of every student, switched on with
+ * {@code student.read-model.enabled}, from which {@link StudentService} answers
+ * lookups by id and email and the listing without a query. Students are held
+ * in parallel arrays sorted by id, one set per shard, with a primitive
+ * {@code long[]} of ids searched by bisection, plus a map from normalized
+ * email to id. A page is a slice of the arrays.
+ * <p>
+ * The model is first built by a background thread once the application has
+ * started, and until then reads go to the database. Every committed
+ * {@link StudentChangeEvent} is then applied: the student it carries, or else
+ * that one row reloaded. The whole model is rebuilt every
+ * {@code reconcileInterval} to pick up writes that bypass the service, such as
+ * the reactive endpoints. Readers only wait while a change is copied in. All
+ * of its queries go to the primary, as a replica may not have the change yet.
+ */
+@Component
+public class StudentReadModel implements SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(StudentReadModel.class);
+
+    private final StudentRepository studentRepository;
+    private final StudentShards studentShards;
+    private final boolean enabled;
+    private final Duration reconcileInterval;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object changes = new Object();
+    private volatile Columns columns;
+    private Set<Long> touched;
+    private volatile boolean running;
+    private CountDownLatch stopped;
+    private Thread reconciler;
+    private Timer rebuilds;
+
+    public StudentReadModel(StudentRepository studentRepository, StudentShards studentShards,
+	    @Value("${student.read-model.enabled:false}") boolean enabled,
+	    @Value("${student.read-model.reconcile-interval:10m}") Duration reconcileInterval) {
+	this.studentRepository = studentRepository;
+	this.studentShards = studentShards;
+	this.enabled = enabled;
+	this.reconcileInterval = reconcileInterval;
+    }
+
+    /**
+     * Whether reads can be answered from the model, which is once it has been
+     * built.
+     */
+    public boolean isReady() {
+	return columns != null;
+    }
+
+    public int size() {
+	Columns current = columns;
+	return current == null ? 0 : current.size;
+    }
+
+    public Optional<StudentView> find(Long studentId) {
+	lock.readLock().lock();
+	try {
+	    return Optional.ofNullable(columns.find(studentId));
+	} finally {
+	    lock.readLock().unlock();
+	}
+    }
+
+    public Optional<StudentView> findByEmail(String email) {
+	String normalizedEmail = Student.normalizeEmail(email);
+	if (normalizedEmail == null) {
+	    return Optional.empty();
+	}
+	lock.readLock().lock();
+	try {
+	    Long studentId = columns.byEmail.get(normalizedEmail);
+	    return studentId == null ? Optional.empty() : Optional.ofNullable(columns.find(studentId));
+	} finally {
+	    lock.readLock().unlock();
+	}
+    }
+
+    /**
+     * Up to {@code size} students after {@code afterId} in id order, born within
+     * {@code dobRange} unless it is unbounded, as the listing queries select them.
+     */
+    public List<StudentView> findPageAfter(long afterId, int size, DobRange dobRange) {
+	long from = dobRange.from().toEpochDay();
+	long to = dobRange.to().toEpochDay();
+	boolean unbounded = dobRange.isUnbounded();
+	List<StudentView> students = new ArrayList<>(size);
+	lock.readLock().lock();
+	try {
+	    Segment[] segments = columns.segments;
+	    for (int shard = studentShards.shardOf(Math.max(afterId, 0L)); shard < segments.length
+		    && students.size() < size; shard++) {
+		Segment segment = segments[shard];
+		int index = segment.indexOf(afterId);
+		for (int i = index < 0 ? -index - 1 : index + 1; i < segment.size && students.size() < size; i++) {
+		    int dob = segment.dobs[i];
+		    if (unbounded || (dob != Segment.NO_DOB && dob >= from && dob <= to)) {
+			students.add(segment.view(i));
+		    }
+		}
+	    }
+	} finally {
+	    lock.readLock().unlock();
+	}
+	return students;
+    }
+
+    /**
+     * Applies the student carried by the event, or else reloads it by primary
+     * key. The reload runs before the changes lock is taken, so writers do not
+     * wait on each other's queries; a reload that lost a race with a later
+     * change is dropped by the version check and the record of removed ids. That
+     * record belongs to one copy, so a reload that a rebuild swapped a new copy
+     * in under is made again against the new one.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChange(StudentChangeEvent event) {
+	if (!enabled) {
+	    return;
+	}
+	boolean reloads = event.type() != StudentChangeEvent.Type.DELETED && event.student().isEmpty();
+	for (;;) {
+	    Columns seen = columns;
+	    Optional<StudentView> student = event.type() == StudentChangeEvent.Type.DELETED ? Optional.empty()
+		    : event.student().or(() -> seen == null ? Optional.empty() : load(event.id()));
+	    synchronized (changes) {
+		if (reloads && columns != seen) {
+		    continue;
+		}
+		if (touched != null) {
+		    touched.add(event.id());
+		}
+		if (columns != null) {
+		    apply(event.id(), student);
+		}
+		return;
+	    }
+	}
+    }
+
+    /**
+     * Reads every shard into a new copy and swaps it in. Students changed while
+     * the copy was read are reloaded before the swap, as the copy may hold them
+     * from before the change.
+     */
+    public synchronized void rebuild() {
+	synchronized (changes) {
+	    touched = new HashSet<>();
+	}
+	long start = System.nanoTime();
+	try {
+	    Columns fresh = new Columns(studentShards, Math.max(size(), 16));
+	    for (int shard = 0; shard < studentShards.count(); shard++) {
+		studentShards.readPrimary(shard, () -> {
+		    try (Stream<StudentView> all = studentRepository.streamViews()) {
+			all.forEach(fresh::put);
+		    }
+		    return null;
+		});
+	    }
+	    synchronized (changes) {
+		Map<Long, StudentView> reloaded = loadAll(touched);
+		for (Long studentId : touched) {
+		    StudentView student = reloaded.get(studentId);
+		    if (student == null) {
+			fresh.remove(studentId);
+		    } else {
+			fresh.put(student);
+		    }
+		}
+		lock.writeLock().lock();
+		try {
+		    columns = fresh;
+		} finally {
+		    lock.writeLock().unlock();
+		}
+	    }
+	} finally {
+	    synchronized (changes) {
+		touched = null;
+	    }
+	    if (rebuilds != null) {
+		rebuilds.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+	    }
+	}
+    }
+
+    @Override
+    public void start() {
+	if (!enabled) {
+	    return;
+	}
+	running = true;
+	stopped = new CountDownLatch(1);
+	reconciler = Thread.ofPlatform().name("student-read-model").daemon().start(this::reconcile);
+    }
+
+    @Override
+    public void stop() {
+	running = false;
+	if (reconciler == null) {
+	    return;
+	}
+	stopped.countDown();
+	try {
+	    reconciler.join();
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	}
+    }
+
+    @Override
+    public boolean isRunning() {
+	return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+	Gauge.builder("student.read-model.size", this, StudentReadModel::size)
+		.description("Students held in the read model").register(registry);
+	rebuilds = Timer.builder("student.read-model.rebuild").description("Time to rebuild the read model")
+		.register(registry);
+    }
+
+    private void reconcile() {
+	while (running) {
+	    try {
+		rebuild();
+	    } catch (RuntimeException ex) {
+		log.warn("Could not rebuild the student read model", ex);
+	    }
+	    try {
+		stopped.await(reconcileInterval.toMillis(), TimeUnit.MILLISECONDS);
+	    } catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		return;
+	    }
+	}
+    }
+
+    private Optional<StudentView> load(Long studentId) {
+	return studentShards.readPrimary(studentShards.shardOf(studentId),
+		() -> studentRepository.findViewById(studentId));
+    }
+
+    /**
+     * The students among {@code studentIds} that still exist, with one IN query
+     * per shard and chunk of {@link StudentService#MAX_PAGE_SIZE} ids.
+     */
+    private Map<Long, StudentView> loadAll(Set<Long> studentIds) {
+	Map<Integer, List<Long>> byShard = new TreeMap<>();
+	for (Long studentId : studentIds) {
+	    byShard.computeIfAbsent(studentShards.shardOf(studentId), shard -> new ArrayList<>()).add(studentId);
+	}
+	Map<Long, StudentView> students = new HashMap<>();
+	byShard.forEach((shard, ids) -> {
+	    for (int from = 0; from < ids.size(); from += StudentService.MAX_PAGE_SIZE) {
+		List<Long> chunk = ids.subList(from, Math.min(from + StudentService.MAX_PAGE_SIZE, ids.size()));
+		for (StudentView student : studentShards.readPrimary(shard,
+			() -> studentRepository.findViewsByIds(chunk))) {
+		    students.put(student.id(), student);
+		}
+	    }
+	});
+	return students;
+    }
+
+    private void apply(Long studentId, Optional<StudentView> student) {
+	lock.writeLock().lock();
+	try {
+	    student.ifPresentOrElse(columns::put, () -> columns.remove(studentId));
+	} finally {
+	    lock.writeLock().unlock();
+	}
+    }
+
+    /**
+     * One {@link Segment} per shard, as ids sort shard by shard, plus the map
+     * from normalized email to id. Ids removed since the model was built are
+     * remembered, as ids are never reused, so that a reload that raced with the
+     * delete cannot bring the student back.
+     */
+    private static final class Columns {
+	private final StudentShards studentShards;
+	private final Segment[] segments;
+	private final Map<String, Long> byEmail = new HashMap<>();
+	private final Set<Long> removed = new HashSet<>();
+	private int size;
+
+	private Columns(StudentShards studentShards, int capacity) {
+	    this.studentShards = studentShards;
+	    segments = new Segment[studentShards.count()];
+	    for (int shard = 0; shard < segments.length; shard++) {
+		segments[shard] = new Segment(Math.max(capacity / segments.length, 16));
+	    }
+	}
+
+	private StudentView find(long studentId) {
+	    Segment segment = segments[studentShards.shardOf(studentId)];
+	    int index = segment.indexOf(studentId);
+	    return index < 0 ? null : segment.view(index);
+	}
+
+	/**
+	 * Inserts or replaces the student, unless the model holds a later version
+	 * of it or it has been removed.
+	 */
+	private void put(StudentView student) {
+	    if (removed.contains(student.id())) {
+		return;
+	    }
+	    long version = student.version() == null ? 0 : student.version();
+	    Segment segment = segments[studentShards.shardOf(student.id())];
+	    int index = segment.indexOf(student.id());
+	    if (index >= 0) {
+		if (segment.versions[index] > version) {
+		    return;
+		}
+		unindex(segment.emails[index], student.id());
+	    } else {
+		index = -index - 1;
+		segment.insert(index);
+		size++;
+	    }
+	    segment.set(index, student, version);
+	    String normalizedEmail = Student.normalizeEmail(student.email());
+	    if (normalizedEmail != null) {
+		byEmail.put(normalizedEmail, student.id());
+	    }
+	}
+
+	private void remove(long studentId) {
+	    removed.add(studentId);
+	    Segment segment = segments[studentShards.shardOf(studentId)];
+	    int index = segment.indexOf(studentId);
+	    if (index < 0) {
+		return;
+	    }
+	    unindex(segment.emails[index], studentId);
+	    segment.delete(index);
+	    size--;
+	}
+
+	private void unindex(String email, long studentId) {
+	    String normalizedEmail = Student.normalizeEmail(email);
+	    if (normalizedEmail != null) {
+		byEmail.remove(normalizedEmail, studentId);
+	    }
+	}
+    }
+
+    /**
+     * Students of one shard sorted by id, one array per attribute. The date of
+     * birth is kept as its epoch day. A shard's sequence hands out growing ids,
+     * so new students land at or near the end and shift few others.
+     */
+    private static final class Segment {
+	private static final int NO_DOB = Integer.MIN_VALUE;
+
+	private long[] ids;
+	private long[] versions;
+	private int[] dobs;
+	private String[] names;
+	private String[] emails;
+	private int size;
+
+	private Segment(int capacity) {
+	    ids = new long[capacity];
+	    versions = new long[capacity];
+	    dobs = new int[capacity];
+	    names = new String[capacity];
+	    emails = new String[capacity];
+	}
+
+	private int indexOf(long studentId) {
+	    return Arrays.binarySearch(ids, 0, size, studentId);
+	}
+
+	private StudentView view(int index) {
+	    return new StudentView(ids[index], names[index], emails[index],
+		    dobs[index] == NO_DOB ? null : LocalDate.ofEpochDay(dobs[index]), versions[index]);
+	}
+
+	private void set(int index, StudentView student, long version) {
+	    ids[index] = student.id();
+	    versions[index] = version;
+	    dobs[index] = student.dob() == null ? NO_DOB : Math.toIntExact(student.dob().toEpochDay());
+	    names[index] = student.name();
+	    emails[index] = student.email();
+	}
+
+	private void insert(int index) {
+	    if (size == ids.length) {
+		grow();
+	    }
+	    shift(index, index + 1, size - index);
+	    size++;
+	}
+
+	private void delete(int index) {
+	    shift(index + 1, index, size - index - 1);
+	    size--;
+	    names[size] = null;
+	    emails[size] = null;
+	}
+
+	private void shift(int from, int to, int length) {
+	    if (length == 0) {
+		return;
+	    }
+	    System.arraycopy(ids, from, ids, to, length);
+	    System.arraycopy(versions, from, versions, to, length);
+	    System.arraycopy(dobs, from, dobs, to, length);
+	    System.arraycopy(names, from, names, to, length);
+	    System.arraycopy(emails, from, emails, to, length);
+	}
+
+	private void grow() {
+	    int capacity = ids.length + (ids.length >> 1) + 1;
+	    ids = Arrays.copyOf(ids, capacity);
+	    versions = Arrays.copyOf(versions, capacity);
+	    dobs = Arrays.copyOf(dobs, capacity);
+	    names = Arrays.copyOf(names, capacity);
+	    emails = Arrays.copyOf(emails, capacity);
+	}
+    }
+}
@@ -1,58 +1,812 @@
 package me.subhas.sms.student.business;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import me.subhas.sms.student.business.exception.BatchTooLargeException;
 import me.subhas.sms.student.business.exception.EmailAlreadyTakenException;
 import me.subhas.sms.student.business.exception.StudentNotFoundException;
+import me.subhas.sms.student.business.exception.StudentVersionMismatchException;
 import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
 import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
 
 @Service
+@Timed("student.service")
 public class StudentService {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int MAX_BATCH_SIZE = 10_000;
+    public static final String STUDENT_CACHE = "students";
+    public static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
 
     private final StudentRepository studentRepository;
+    private final StudentShards studentShards;
+    private final StudentLoader studentLoader;
+    private final StudentNameIndex studentNameIndex;
+    private final StudentReadModel studentReadModel;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public StudentService(StudentRepository studentRepository) {
+    /**
+     * Cache entry standing in for a student while it is being loaded. Readers
+     * of the same id wait for its result, and an eviction removes it, so that a
+     * load overtaken by a write is not cached.
+     */
+    private record Loading(CompletableFuture<Optional<StudentView>> result) {
+    }
+
+    public StudentService(StudentRepository studentRepository, StudentShards studentShards,
+	    StudentLoader studentLoader, StudentNameIndex studentNameIndex, StudentReadModel studentReadModel,
+	    CacheManager cacheManager, ApplicationEventPublisher eventPublisher) {
 	this.studentRepository = studentRepository;
+	this.studentShards = studentShards;
+	this.studentLoader = studentLoader;
+	this.studentNameIndex = studentNameIndex;
+	this.studentReadModel = studentReadModel;
+	this.cacheManager = cacheManager;
+	this.eventPublisher = eventPublisher;
+    }
+
+    public StudentPage listStudents(Long afterId, int size) {
+	return listStudents(afterId, size, DobRange.UNBOUNDED);
+    }
+
+    public StudentPage listStudents(Long afterId, int size, DobRange dobRange) {
+	return listStudents(afterId, size, dobRange, StudentField.ALL);
+    }
+
+    /**
+     * Lists one page of students. When only some {@code fields} are wanted, only
+     * their columns are selected, besides the id and version that the cursor and
+     * the ETag need.
+     * <p>
+     * With several shards, the page is gathered from the shard of the cursor
+     * and all later ones in parallel. Ids sort shard by shard, so the shards'
+     * pages only need to be concatenated and cut to size. Once the
+     * {@link StudentReadModel} is ready, pages are read from it instead.
+     */
+    public StudentPage listStudents(Long afterId, int size, DobRange dobRange, Set<StudentField> fields) {
+	int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+	long after = afterId == null ? 0L : afterId;
+	List<StudentView> students = studentReadModel.isReady()
+		? studentReadModel.findPageAfter(after, pageSize, dobRange)
+		: findPageOnShards(after, pageSize, dobRange, fields);
+	Long next = students.size() == pageSize ? students.get(pageSize - 1).id() : null;
+	return new StudentPage(students, next);
+    }
+
+    private List<StudentView> findPageOnShards(long after, int pageSize, DobRange dobRange,
+	    Set<StudentField> fields) {
+	List<Integer> shards = new ArrayList<>();
+	for (int shard = studentShards.shardOf(Math.max(after, 0L)); shard < studentShards.count(); shard++) {
+	    shards.add(shard);
+	}
+	List<List<StudentView>> pages = studentShards.readEach(shards,
+		shard -> findPageAfter(after, pageSize, dobRange, fields));
+	List<StudentView> students = pages.get(0);
+	if (pages.size() > 1) {
+	    students = new ArrayList<>(pageSize);
+	    for (List<StudentView> page : pages) {
+		students.addAll(page.subList(0, Math.min(page.size(), pageSize - students.size())));
+	    }
+	}
+	return students;
+    }
+
+    private List<StudentView> findPageAfter(long after, int pageSize, DobRange dobRange, Set<StudentField> fields) {
+	if (fields.containsAll(StudentField.ALL)) {
+	    Pageable pageable = PageRequest.of(0, pageSize);
+	    return dobRange.isUnbounded() ? studentRepository.findPageAfter(after, pageable)
+		    : studentRepository.findPageAfterBornBetween(after, dobRange.from(), dobRange.to(), pageable);
+	}
+	Set<String> attributes = new HashSet<>();
+	for (StudentField field : fields) {
+	    attributes.add(field.attribute());
+	}
+	return dobRange.isUnbounded() ? studentRepository.findSparsePageAfter(after, null, null, attributes, pageSize)
+		: studentRepository.findSparsePageAfter(after, dobRange.from(), dobRange.to(), attributes, pageSize);
+    }
+
+    /**
+     * Streams the shards one after the other, which keeps the id order.
+     */
+    public void streamStudents(Consumer<Student> consumer) {
+	for (int shard = 0; shard < studentShards.count(); shard++) {
+	    studentShards.read(shard, () -> {
+		try (Stream<Student> students = studentRepository.streamAll()) {
+		    students.forEach(consumer);
+		}
+		return null;
+	    });
+	}
+    }
+
+    /**
+     * With several shards, each returns its best {@code limit} matches, which are
+     * merged in the order the query ranks them by: prefix matches first, then by
+     * name and id.
+     */
+    public List<StudentView> searchStudents(String query, int limit) {
+	String term = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+	if (term.isEmpty()) {
+	    return List.of();
+	}
+	String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	PageRequest page = PageRequest.of(0, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+	List<List<StudentView>> found = studentShards
+		.readEach(shard -> studentRepository.search("%" + escaped + "%", escaped + "%", page));
+	if (found.size() == 1) {
+	    return found.get(0);
+	}
+	Comparator<StudentView> rank = Comparator.comparing((StudentView student) -> !isPrefixMatch(student, term))
+		.thenComparing(StudentView::name, Comparator.nullsLast(Comparator.naturalOrder()))
+		.thenComparing(StudentView::id);
+	return found.stream().flatMap(List::stream).sorted(rank).limit(page.getPageSize()).toList();
     }
 
-    public List<Student> listStudents() {
-	return studentRepository.findAll();
+    private static boolean isPrefixMatch(StudentView student, String term) {
+	String email = Student.normalizeEmail(student.email());
+	return (student.name() != null && student.name().toLowerCase(Locale.ROOT).startsWith(term))
+		|| (email != null && email.startsWith(term));
     }
 
-    public Student getStudent(Long studentId) {
-	return studentRepository.findById(studentId).orElseThrow(
-		() -> new StudentNotFoundException(String.format("Student with id %d does not exist", studentId)));
+    public List<StudentSuggestion> suggestStudents(String prefix, int limit) {
+	return studentNameIndex.suggest(prefix, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
     }
 
+    /**
+     * Looks a student up through the cache. Concurrent calls for an id that is
+     * not cached share one database lookup, and missing ids are cached too, for
+     * the shorter TTL configured in {@code StudentConfig}, so that clients
+     * polling a deleted id do not reach the database each time.
+     * <p>
+     * The lookup is not made inside the cache's atomic compute, which would
+     * lock a whole hash bin of the cache, and so unrelated ids, for as long as
+     * {@link StudentLoader} waits for a batch. A miss instead puts a
+     * {@link Loading} entry, loads without holding any lock, and then replaces
+     * that entry with the student only if it is still there. A write evicts the
+     * entry after its commit, so a student loaded before the commit is returned
+     * to its caller but not cached.
+     * <p>
+     * Cache misses for different ids arriving together are fetched with one
+     * query by {@link StudentLoader}. There is no transaction here, so that
+     * callers waiting for a batch do not hold a connection each; the query runs
+     * in the repository's own read-only transaction. Once the
+     * {@link StudentReadModel} is ready, misses are answered from it.
+     */
+    public Optional<StudentView> findStudent(Long studentId) {
+	if (!(cacheManager.getCache(STUDENT_CACHE) instanceof CaffeineCache cache)) {
+	    return loadStudent(studentId);
+	}
+	Object cached = cache.getNativeCache().getIfPresent(studentId);
+	if (cached == null) {
+	    Loading loading = new Loading(new CompletableFuture<>());
+	    cached = cache.getNativeCache().asMap().putIfAbsent(studentId, loading);
+	    if (cached == null) {
+		return loadInto(cache, studentId, loading);
+	    }
+	}
+	if (cached instanceof Loading loading) {
+	    try {
+		return loading.result().join();
+	    } catch (CompletionException ex) {
+		throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+	    }
+	}
+	return cached instanceof StudentView student ? Optional.of(student) : Optional.empty();
+    }
+
+    private Optional<StudentView> loadInto(CaffeineCache cache, Long studentId, Loading loading) {
+	Optional<StudentView> student;
+	try {
+	    student = loadStudent(studentId);
+	} catch (RuntimeException ex) {
+	    cache.getNativeCache().asMap().remove(studentId, loading);
+	    loading.result().completeExceptionally(ex);
+	    throw ex;
+	}
+	cache.getNativeCache().asMap().replace(studentId, loading,
+		student.isPresent() ? student.get() : NullValue.INSTANCE);
+	loading.result().complete(student);
+	return student;
+    }
+
+    private Optional<StudentView> loadStudent(Long studentId) {
+	return studentReadModel.isReady() ? studentReadModel.find(studentId) : studentLoader.load(studentId);
+    }
+
+    /**
+     * Looks the email up regardless of case and surrounding whitespace. With
+     * several shards every shard is asked, as a student keeps its shard when its
+     * email changes.
+     */
+    public Optional<StudentView> findStudentByEmail(String email) {
+	if (studentReadModel.isReady()) {
+	    return studentReadModel.findByEmail(email);
+	}
+	String normalizedEmail = Student.normalizeEmail(email);
+	for (Optional<StudentView> student : studentShards
+		.readEach(shard -> studentRepository.findViewByNormalizedEmail(normalizedEmail))) {
+	    if (student.isPresent()) {
+		return student;
+	    }
+	}
+	return Optional.empty();
+    }
+
+    /**
+     * Fetches several students with one IN query per shard, or from the read
+     * model when it is ready, bypassing the cache, in the order of
+     * {@code studentIds}. Repeated ids are returned once and unknown ids are
+     * left out.
+     */
+    public List<StudentView> findStudents(Collection<Long> studentIds) {
+	Set<Long> ids = new LinkedHashSet<>(studentIds);
+	if (ids.size() > MAX_PAGE_SIZE) {
+	    throw new BatchTooLargeException(
+		    String.format("Lookup of %d students exceeds the limit of %d", ids.size(), MAX_PAGE_SIZE));
+	}
+	if (ids.isEmpty()) {
+	    return List.of();
+	}
+	if (studentReadModel.isReady()) {
+	    List<StudentView> students = new ArrayList<>(ids.size());
+	    for (Long id : ids) {
+		studentReadModel.find(id).ifPresent(students::add);
+	    }
+	    return students;
+	}
+	Map<Integer, Set<Long>> byShard = new TreeMap<>();
+	for (Long id : ids) {
+	    byShard.computeIfAbsent(studentShards.shardOf(id), shard -> new LinkedHashSet<>()).add(id);
+	}
+	Map<Long, StudentView> found = new HashMap<>();
+	for (List<StudentView> shardStudents : studentShards.readEach(byShard.keySet(),
+		shard -> studentRepository.findViewsByIds(byShard.get(shard)))) {
+	    for (StudentView student : shardStudents) {
+		found.put(student.id(), student);
+	    }
+	}
+	List<StudentView> students = new ArrayList<>(found.size());
+	for (Long id : ids) {
+	    StudentView student = found.get(id);
+	    if (student != null) {
+		students.add(student);
+	    }
+	}
+	return students;
+    }
+
+    /**
+     * Evicts the new id as well, which a client may have looked up, and had
+     * cached as missing, before it was created. The student goes to the shard
+     * of its email, which also holds that email's index entry, so both are
+     * written in one transaction. An index entry left behind for the email by
+     * a release that failed is removed, and the student inserted again.
+     */
+    @CacheEvict(cacheNames = STUDENT_CACHE, key = "#student.id")
     public void createStudent(Student student) {
-	requireUniqueEmail(student.getEmail());
-	studentRepository.save(student);
+	String email = Student.normalizeEmail(student.getEmail());
+	try {
+	    insertStudent(student, email);
+	} catch (EmailAlreadyTakenException ex) {
+	    if (!studentShards.isSharded() || email == null || !releaseStaleEmail(email)) {
+		throw ex;
+	    }
+	    Student retry = new Student(student.getName(), student.getEmail(), student.getDob());
+	    insertStudent(retry, email);
+	    student.setId(retry.getId());
+	}
+	eventPublisher.publishEvent(StudentChangeEvent.created(view(student)));
+    }
+
+    private void insertStudent(Student student, String email) {
+	try {
+	    studentShards.write(studentShards.shardFor(email), () -> {
+		studentRepository.saveAndFlush(student);
+		if (studentShards.isSharded() && email != null) {
+		    studentRepository.indexEmail(email, student.getId());
+		}
+	    });
+	} catch (DataIntegrityViolationException ex) {
+	    throw translateIntegrityViolation(ex);
+	}
+    }
+
+    /**
+     * Creates all students whose email is neither taken nor repeated earlier in
+     * the batch. Taken emails are found with a single IN query and the accepted
+     * rows are written in one transaction, so ids come from the pooled sequence
+     * and inserts go out as JDBC batches. If a concurrent writer claims one of
+     * the emails in between, that transaction fails on the unique constraint and
+     * the rows are written again one by one, so only the rows that fail on their
+     * own are rejected.
+     * <p>
+     * With several shards, the rows are split by the shard of their email and
+     * each part is written as above in a transaction of its own, falling back
+     * to row by row on its own since the other parts may already have
+     * committed.
+     * <p>
+     * Only the new ids are evicted from the cache, in case they were cached as
+     * missing, so that the many small batches of asynchronous enrollment leave
+     * the rest of the cache in place.
+     */
+    public List<BatchItemResult> createStudents(List<Student> students) {
+	checkBatchSize(students.size());
+	if (!studentShards.isSharded()) {
+	    List<BatchItemResult> results = createPart(0, students);
+	    evictCreated(results);
+	    return results;
+	}
+	Map<Integer, List<Integer>> byShard = new TreeMap<>();
+	for (int i = 0; i < students.size(); i++) {
+	    int shard = studentShards.shardFor(Student.normalizeEmail(students.get(i).getEmail()));
+	    byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(i);
+	}
+	BatchItemResult[] results = new BatchItemResult[students.size()];
+	byShard.forEach((shard, indexes) -> {
+	    List<Student> part = new ArrayList<>(indexes.size());
+	    for (int index : indexes) {
+		part.add(students.get(index));
+	    }
+	    List<BatchItemResult> partResults = createPart(shard, part);
+	    evictCreated(partResults);
+	    for (BatchItemResult result : partResults) {
+		int index = indexes.get(result.index());
+		results[index] = new BatchItemResult(index, result.id(), result.status(), result.message());
+	    }
+	});
+	return List.of(results);
+    }
+
+    private List<BatchItemResult> createPart(int shard, List<Student> part) {
+	try {
+	    return studentShards.write(shard, () -> createOnShard(part));
+	} catch (RuntimeException ex) {
+	    return createRowByRow(shard, part, ex);
+	}
     }
 
+    /**
+     * Writes the rows of a failed batch or shard part one by one, so that a
+     * concurrent claim of one email only rejects that row. Each row is written
+     * from a fresh copy, as the failed transaction may have given the original
+     * an id.
+     */
+    private List<BatchItemResult> createRowByRow(int shard, List<Student> part, RuntimeException failure) {
+	if (part.size() == 1) {
+	    return List.of(BatchItemResult.rejected(0, rejectionMessage(failure)));
+	}
+	List<BatchItemResult> results = new ArrayList<>(part.size());
+	for (int i = 0; i < part.size(); i++) {
+	    Student student = part.get(i);
+	    Student copy = new Student(student.getName(), student.getEmail(), student.getDob());
+	    try {
+		BatchItemResult result = studentShards.write(shard, () -> createOnShard(List.of(copy))).get(0);
+		results.add(new BatchItemResult(i, result.id(), result.status(), result.message()));
+	    } catch (RuntimeException ex) {
+		results.add(BatchItemResult.rejected(i, rejectionMessage(ex)));
+	    }
+	}
+	return results;
+    }
+
+    private static String rejectionMessage(RuntimeException ex) {
+	return ex instanceof EmailAlreadyTakenException ? ex.getMessage() : "Student could not be created";
+    }
+
+    private void evictCreated(List<BatchItemResult> results) {
+	for (BatchItemResult result : results) {
+	    if (result.status() == BatchItemResult.Status.CREATED) {
+		evictStudent(result.id());
+	    }
+	}
+    }
+
+    private List<BatchItemResult> createOnShard(List<Student> students) {
+	Set<String> emails = new HashSet<>();
+	for (Student student : students) {
+	    String email = Student.normalizeEmail(student.getEmail());
+	    if (email != null) {
+		emails.add(email);
+	    }
+	}
+	Set<String> takenEmails = new HashSet<>();
+	if (!emails.isEmpty()) {
+	    takenEmails.addAll(studentShards.isSharded() ? studentRepository.findIndexedEmails(emails)
+		    : studentRepository.findTakenEmails(emails));
+	}
+
+	List<Student> accepted = new ArrayList<>(students.size());
+	for (Student student : students) {
+	    String email = Student.normalizeEmail(student.getEmail());
+	    if (email == null || takenEmails.add(email)) {
+		accepted.add(student);
+	    }
+	}
+	try {
+	    studentRepository.saveAll(accepted);
+	    studentRepository.flush();
+	    if (studentShards.isSharded()) {
+		for (Student student : accepted) {
+		    String email = Student.normalizeEmail(student.getEmail());
+		    if (email != null) {
+			studentRepository.indexEmail(email, student.getId());
+		    }
+		}
+	    }
+	} catch (DataIntegrityViolationException ex) {
+	    throw translateIntegrityViolation(ex);
+	}
+	for (Student student : accepted) {
+	    eventPublisher.publishEvent(StudentChangeEvent.created(view(student)));
+	}
+
+	List<BatchItemResult> results = new ArrayList<>(students.size());
+	for (int i = 0, next = 0; i < students.size(); i++) {
+	    Student student = students.get(i);
+	    if (next < accepted.size() && accepted.get(next) == student) {
+		results.add(BatchItemResult.created(i, student.getId()));
+		next++;
+	    } else {
+		results.add(BatchItemResult.rejected(i, "Email is already taken"));
+	    }
+	}
+	return results;
+    }
+
+    @CacheEvict(cacheNames = STUDENT_CACHE, key = "#studentId")
     public void deleteStudent(Long studentId) {
-	boolean exists = studentRepository.existsById(studentId);
-	if (!exists) {
-	    throw new StudentNotFoundException(String.format("Student with id %d does not exist", studentId));
+	String email = studentShards.write(studentShards.shardOf(studentId), () -> {
+	    String indexed = studentShards.isSharded()
+		    ? studentRepository.findNormalizedEmailById(studentId).orElse(null)
+		    : null;
+	    if (studentRepository.deleteStudentById(studentId) == 0) {
+		throw new StudentNotFoundException(studentId);
+	    }
+	    return indexed;
+	});
+	if (email != null) {
+	    unindexEmail(email, studentId);
+	}
+	eventPublisher.publishEvent(StudentChangeEvent.deleted(studentId));
+    }
+
+    /**
+     * Deletes the existing students among {@code studentIds} with one lookup and
+     * one delete statement; unknown ids are reported as rejected rows, as is
+     * every repeat of an id, which no longer exists by then. With
+     * several shards the students are deleted one by one, and each is evicted
+     * from the cache as its delete commits.
+     */
+    public List<BatchItemResult> deleteStudents(List<Long> studentIds) {
+	checkBatchSize(studentIds.size());
+	if (studentShards.isSharded()) {
+	    List<BatchItemResult> results = new ArrayList<>(studentIds.size());
+	    for (int i = 0; i < studentIds.size(); i++) {
+		Long studentId = studentIds.get(i);
+		try {
+		    deleteStudent(studentId);
+		    results.add(BatchItemResult.deleted(i, studentId));
+		} catch (StudentNotFoundException ex) {
+		    results.add(BatchItemResult.rejected(i, studentId, ex.getMessage()));
+		} finally {
+		    evictStudent(studentId);
+		}
+	    }
+	    return results;
 	}
-	studentRepository.deleteById(studentId);
+	List<BatchItemResult> deleted = studentShards.write(0, () -> {
+	    Set<Long> existing = studentIds.isEmpty() ? Set.of()
+		    : new HashSet<>(studentRepository.findExistingIds(new HashSet<>(studentIds)));
+	    if (!existing.isEmpty()) {
+		studentRepository.deleteStudentsByIds(existing);
+	    }
 
+	    Set<Long> reported = new HashSet<>();
+	    List<BatchItemResult> results = new ArrayList<>(studentIds.size());
+	    for (int i = 0; i < studentIds.size(); i++) {
+		Long studentId = studentIds.get(i);
+		if (existing.contains(studentId) && reported.add(studentId)) {
+		    eventPublisher.publishEvent(StudentChangeEvent.deleted(studentId));
+		    results.add(BatchItemResult.deleted(i, studentId));
+		} else {
+		    results.add(BatchItemResult.rejected(i, studentId, StudentNotFoundException.message(studentId)));
+		}
+	    }
+	    return results;
+	});
+	studentIds.forEach(this::evictStudent);
+	return deleted;
     }
 
-    @Transactional
+    @CacheEvict(cacheNames = STUDENT_CACHE, key = "#studentId")
     public void updateStudent(Long studentId, String name, String email) {
-	Student student = getStudent(studentId);
-	if (isValidValue(name, student.getName())) {
-	    student.setName(name);
+	updateStudent(studentId, name, email, null);
+    }
+
+    /**
+     * Updates the student in a single statement, only if it is still at
+     * {@code expectedVersion}; a {@code null} version skips the check. A blank
+     * name or email leaves that field unchanged.
+     * <p>
+     * With several shards a new email is first claimed in the email index,
+     * which fails if any student has it. The update is then made conditional on
+     * the version read along with the old email, so that it cannot replace an
+     * email that a concurrent update changed in between. If the update fails the
+     * claim is withdrawn, and without an {@code expectedVersion} a concurrent
+     * change is retried from a fresh read. The old email is released once the
+     * update has succeeded.
+     */
+    @CacheEvict(cacheNames = STUDENT_CACHE, key = "#studentId")
+    public void updateStudent(Long studentId, String name, String email, Long expectedVersion) {
+	String newName = isValidValue(name, null) ? name : null;
+	String newEmail = isValidValue(email, null) ? email : null;
+	int shard = studentShards.shardOf(studentId);
+	if (!studentShards.isSharded() || newEmail == null) {
+	    studentShards.write(shard, () -> applyUpdate(studentId, newName, newEmail, expectedVersion));
+	    return;
+	}
+	String claimed = Student.normalizeEmail(newEmail);
+	for (int attempt = 1;; attempt++) {
+	    StudentView current = studentShards.read(shard, () -> studentRepository.findViewById(studentId))
+		    .orElseThrow(() -> new StudentNotFoundException(studentId));
+	    if (expectedVersion != null && !expectedVersion.equals(current.version())) {
+		throw versionMismatch(studentId, expectedVersion);
+	    }
+	    String released = Student.normalizeEmail(current.email());
+	    boolean claims = !claimed.equals(released);
+	    if (claims) {
+		indexEmail(claimed, studentId);
+	    }
+	    try {
+		studentShards.write(shard, () -> applyUpdate(studentId, newName, newEmail, current.version()));
+	    } catch (RuntimeException ex) {
+		if (claims) {
+		    unindexEmail(claimed, studentId);
+		}
+		if (ex instanceof StudentVersionMismatchException && expectedVersion == null
+			&& attempt < MAX_UPDATE_ATTEMPTS) {
+		    continue;
+		}
+		throw ex;
+	    }
+	    if (claims && released != null) {
+		unindexEmail(released, studentId);
+	    }
+	    return;
+	}
+    }
+
+    /**
+     * As {@link #updateStudent(Long, String, String, Long)}, for a precondition
+     * that lists several acceptable versions. The update is made at the current
+     * version, read from the primary, if it is one of them, and fails as stale
+     * otherwise.
+     */
+    @CacheEvict(cacheNames = STUDENT_CACHE, key = "#studentId")
+    public void updateStudentAtAnyVersion(Long studentId, String name, String email, List<Long> expectedVersions) {
+	Long version = studentShards
+		.readPrimary(studentShards.shardOf(studentId), () -> studentRepository.findViewById(studentId))
+		.map(StudentView::version).orElseThrow(() -> new StudentNotFoundException(studentId));
+	updateStudent(studentId, name, email, expectedVersions.contains(version) ? version : expectedVersions.get(0));
+    }
+
+    private void applyUpdate(Long studentId, String newName, String newEmail, Long expectedVersion) {
+	if (newName == null && newEmail == null) {
+	    if (expectedVersion == null) {
+		if (!studentRepository.existsById(studentId)) {
+		    throw new StudentNotFoundException(studentId);
+		}
+		return;
+	    }
+	    StudentView current = studentRepository.findViewById(studentId)
+		    .orElseThrow(() -> new StudentNotFoundException(studentId));
+	    if (!expectedVersion.equals(current.version())) {
+		throw versionMismatch(studentId, expectedVersion);
+	    }
+	    return;
+	}
+	int updated;
+	try {
+	    updated = expectedVersion == null
+		    ? studentRepository.updateStudent(studentId, newName, newEmail, Student.normalizeEmail(newEmail))
+		    : studentRepository.updateStudentAtVersion(studentId, newName, newEmail,
+			    Student.normalizeEmail(newEmail), expectedVersion);
+	} catch (DataIntegrityViolationException ex) {
+	    throw translateIntegrityViolation(ex);
+	}
+	if (updated == 0) {
+	    if (expectedVersion != null && studentRepository.existsById(studentId)) {
+		throw versionMismatch(studentId, expectedVersion);
+	    }
+	    throw new StudentNotFoundException(studentId);
 	}
-	if (isValidValue(email, student.getEmail())) {
-	    requireUniqueEmail(email);
-	    student.setEmail(email);
+	eventPublisher.publishEvent(StudentChangeEvent.updated(studentId, newName, newEmail));
+    }
+
+    /**
+     * Applies many partial updates in one transaction: one select for the rows,
+     * one for email conflicts, and the changed rows flushed as a JDBC batch. Rows
+     * naming an unknown student or an email that is already taken are rejected.
+     * With several shards the patches are applied one by one, and each student
+     * is evicted from the cache as its update commits.
+     */
+    public List<BatchItemResult> updateStudents(List<StudentPatch> patches) {
+	checkBatchSize(patches.size());
+	if (studentShards.isSharded()) {
+	    List<BatchItemResult> results = new ArrayList<>(patches.size());
+	    for (int i = 0; i < patches.size(); i++) {
+		StudentPatch patch = patches.get(i);
+		try {
+		    updateStudent(patch.id(), patch.name(), patch.email(), null);
+		    results.add(BatchItemResult.updated(i, patch.id()));
+		} catch (StudentNotFoundException | EmailAlreadyTakenException ex) {
+		    results.add(BatchItemResult.rejected(i, patch.id(), ex.getMessage()));
+		} finally {
+		    evictStudent(patch.id());
+		}
+	    }
+	    return results;
+	}
+	List<BatchItemResult> updated = studentShards.write(0, () -> updateOnShard(patches));
+	for (StudentPatch patch : patches) {
+	    evictStudent(patch.id());
+	}
+	return updated;
+    }
+
+    private List<BatchItemResult> updateOnShard(List<StudentPatch> patches) {
+	Set<Long> studentIds = new HashSet<>();
+	Set<String> emails = new HashSet<>();
+	for (StudentPatch patch : patches) {
+	    studentIds.add(patch.id());
+	    if (isValidValue(patch.email(), null)) {
+		emails.add(Student.normalizeEmail(patch.email()));
+	    }
+	}
+	Map<Long, Student> students = new HashMap<>();
+	if (!studentIds.isEmpty()) {
+	    for (Student student : studentRepository.findAllById(studentIds)) {
+		students.put(student.getId(), student);
+	    }
+	}
+	Set<String> takenEmails = emails.isEmpty() ? new HashSet<>()
+		: new HashSet<>(studentRepository.findTakenEmails(emails));
+
+	List<BatchItemResult> results = new ArrayList<>(patches.size());
+	for (int i = 0; i < patches.size(); i++) {
+	    StudentPatch patch = patches.get(i);
+	    Student student = students.get(patch.id());
+	    if (student == null) {
+		results.add(BatchItemResult.rejected(i, patch.id(), StudentNotFoundException.message(patch.id())));
+		continue;
+	    }
+	    if (isValidValue(patch.email(), student.getEmail())) {
+		String email = Student.normalizeEmail(patch.email());
+		if (!email.equals(Student.normalizeEmail(student.getEmail())) && !takenEmails.add(email)) {
+		    results.add(BatchItemResult.rejected(i, patch.id(), "Email is already taken"));
+		    continue;
+		}
+		student.setEmail(patch.email());
+	    }
+	    if (isValidValue(patch.name(), student.getName())) {
+		student.setName(patch.name());
+	    }
+	    results.add(BatchItemResult.updated(i, patch.id()));
+	}
+	try {
+	    studentRepository.flush();
+	} catch (DataIntegrityViolationException ex) {
+	    throw translateIntegrityViolation(ex);
+	}
+	for (BatchItemResult result : results) {
+	    if (result.status() == BatchItemResult.Status.UPDATED) {
+		eventPublisher.publishEvent(StudentChangeEvent.updated(view(students.get(result.id()))));
+	    }
+	}
+	return results;
+    }
+
+    private static StudentView view(Student student) {
+	return new StudentView(student.getId(), student.getName(), student.getEmail(), student.getDob(),
+		student.getVersion());
+    }
+
+    /**
+     * Claims the email in the index. An entry left behind by a release that
+     * failed, and so naming a student that no longer has the email, is removed
+     * and the claim retried, once the entry is old enough that no update can
+     * still be in flight for it.
+     */
+    private void indexEmail(String normalizedEmail, Long studentId) {
+	try {
+	    studentShards.write(studentShards.shardFor(normalizedEmail),
+		    () -> studentRepository.indexEmail(normalizedEmail, studentId));
+	} catch (DataIntegrityViolationException ex) {
+	    RuntimeException translated = translateIntegrityViolation(ex);
+	    if (!(translated instanceof EmailAlreadyTakenException) || !releaseStaleEmail(normalizedEmail)) {
+		throw translated;
+	    }
+	    try {
+		studentShards.write(studentShards.shardFor(normalizedEmail),
+			() -> studentRepository.indexEmail(normalizedEmail, studentId));
+	    } catch (DataIntegrityViolationException retryEx) {
+		throw translateIntegrityViolation(retryEx);
+	    }
+	}
+    }
+
+    private boolean releaseStaleEmail(String normalizedEmail) {
+	int shard = studentShards.shardFor(normalizedEmail);
+	Long owner = studentShards.read(shard, () -> studentRepository.findIndexedStudentId(normalizedEmail))
+		.orElse(null);
+	if (owner == null) {
+	    return true;
+	}
+	boolean held = studentShards.read(studentShards.shardOf(owner),
+		() -> studentRepository.findNormalizedEmailById(owner)).filter(normalizedEmail::equals).isPresent();
+	return !held
+		&& studentShards.write(shard, () -> studentRepository.unindexStaleEmail(normalizedEmail, owner)) > 0;
+    }
+
+    private void unindexEmail(String normalizedEmail, Long studentId) {
+	studentShards.write(studentShards.shardFor(normalizedEmail),
+		() -> studentRepository.unindexEmail(normalizedEmail, studentId));
+    }
+
+    /**
+     * Evicts one student. The batch paths call this per row: the
+     * {@code @CacheEvict} of methods called on this instance never runs, and an
+     * eviction after the whole batch would be skipped when a row throws.
+     */
+    private void evictStudent(Long studentId) {
+	Cache cache = cacheManager.getCache(STUDENT_CACHE);
+	if (cache != null) {
+	    cache.evict(studentId);
+	}
+    }
+
+    private static StudentVersionMismatchException versionMismatch(Long studentId, Long expectedVersion) {
+	return new StudentVersionMismatchException(
+		String.format("Student with id %d has been modified since version %d", studentId, expectedVersion));
+    }
+
+    private void checkBatchSize(int size) {
+	if (size > MAX_BATCH_SIZE) {
+	    throw new BatchTooLargeException(
+		    String.format("Batch of %d students exceeds the limit of %d", size, MAX_BATCH_SIZE));
 	}
     }
 
@@ -60,10 +814,13 @@ public class StudentService {
 	return newValue != null && !newValue.isBlank() && !Objects.equals(newValue, currentValue);
     }
 
-    private void requireUniqueEmail(String email) {
-	Optional<Student> studentOptional = studentRepository.findByStudentEmail(email);
-	if (studentOptional.isPresent()) {
-	    throw new EmailAlreadyTakenException("Email is already taken");
+    private RuntimeException translateIntegrityViolation(DataIntegrityViolationException ex) {
+	if (ex.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+	    String constraint = violation.getConstraintName().toLowerCase(Locale.ROOT);
+	    if (constraint.contains(Student.EMAIL_CONSTRAINT) || constraint.contains(Student.EMAIL_INDEX_CONSTRAINT)) {
+		return new EmailAlreadyTakenException("Email is already taken");
+	    }
 	}
+	return ex;
     }
 }
@@ -0,0 +1,4 @@
+package me.subhas.sms.student.business;
+
+public record StudentSuggestion(Long id, String name) {
+}
@@ -0,0 +1,10 @@
+package me.subhas.sms.student.business.exception;
+
+public class BatchTooLargeException extends RuntimeException {
+    private static final long serialVersionUID = 4127319954813306617L;
+
+    public BatchTooLargeException(String message) {
+	super(message);
+    }
+
+}
@@ -0,0 +1,10 @@
+package me.subhas.sms.student.business.exception;
+
+public class IngestionNotFoundException extends RuntimeException {
+    private static final long serialVersionUID = 7139450207314581626L;
+
+    public IngestionNotFoundException(String message) {
+	super(message);
+    }
+
+}
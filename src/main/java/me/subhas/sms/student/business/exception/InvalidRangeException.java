@@ -0,0 +1,10 @@
+package me.subhas.sms.student.business.exception;
+
+public class InvalidRangeException extends RuntimeException {
+    private static final long serialVersionUID = -2297658015309824561L;
+
+    public InvalidRangeException(String message) {
+	super(message);
+    }
+
+}
@@ -0,0 +1,19 @@
+package me.subhas.sms.student.business.exception;
+
+import java.time.Duration;
+
+public class ServiceOverloadedException extends RuntimeException {
+    private static final long serialVersionUID = -2278215530924083419L;
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+	super(message);
+	this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+	return retryAfter;
+    }
+
+}
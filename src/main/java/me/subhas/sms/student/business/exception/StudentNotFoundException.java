@@ -1,10 +1,33 @@
 package me.subhas.sms.student.business.exception;
 
+/**
+ * Thrown for ids that do not exist. It is an expected outcome rather than a
+ * fault, so it captures no stack trace, and the id-based message is only built
+ * when asked for.
+ */
 public class StudentNotFoundException extends RuntimeException {
     private static final long serialVersionUID = -359151207510962606L;
 
+    private final Long studentId;
+
     public StudentNotFoundException(String message) {
-	super(message);
+	super(message, null, false, false);
+	this.studentId = null;
+    }
+
+    public StudentNotFoundException(Long studentId) {
+	super(null, null, false, false);
+	this.studentId = studentId;
+    }
+
+    public static String message(Long studentId) {
+	return "Student with id " + studentId + " does not exist";
+    }
+
+    @Override
+    public String getMessage() {
+	String message = super.getMessage();
+	return message == null && studentId != null ? message(studentId) : message;
     }
 
 }
@@ -0,0 +1,10 @@
+package me.subhas.sms.student.business.exception;
+
+public class StudentVersionMismatchException extends RuntimeException {
+    private static final long serialVersionUID = 6904150323761247810L;
+
+    public StudentVersionMismatchException(String message) {
+	super(message);
+    }
+
+}
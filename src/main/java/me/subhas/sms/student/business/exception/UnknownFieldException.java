@@ -0,0 +1,10 @@
+package me.subhas.sms.student.business.exception;
+
+public class UnknownFieldException extends RuntimeException {
+    private static final long serialVersionUID = 4816023597712865934L;
+
+    public UnknownFieldException(String message) {
+	super(message);
+    }
+
+}
@@ -0,0 +1,87 @@
+package me.subhas.sms.student.data;
+
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import me.subhas.sms.student.data.entity.Student;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking read access to the student table over R2DBC. The pool is owned
+ * here rather than exposed as a ConnectionFactory bean, which would switch off
+ * the DataSource auto-configuration the JPA repositories depend on.
+ */
+@Repository
+public class ReactiveStudentRepository implements DisposableBean {
+    private static final String SELECT_STUDENT = "SELECT id, name, email, dob FROM student";
+    private static final int FETCH_SIZE = 500;
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveStudentRepository(@Value("${student.r2dbc.url}") String url,
+	    @Value("${student.r2dbc.username:}") String username, @Value("${student.r2dbc.password:}") String password,
+	    @Value("${student.r2dbc.pool.max-size:10}") int maxSize) {
+	this(new ConnectionPool(ConnectionPoolConfiguration
+		.builder(ConnectionFactories.get(options(url, username, password))).maxSize(maxSize).build()));
+    }
+
+    ReactiveStudentRepository(ConnectionPool connectionPool) {
+	this.connectionPool = connectionPool;
+	this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    /**
+     * Emits students in id order. Rows are pulled from a server-side cursor as
+     * the subscriber requests them, so a slow consumer slows the query down
+     * instead of buffering the table.
+     */
+    public Flux<Student> findAll() {
+	return databaseClient.sql(SELECT_STUDENT + " ORDER BY id")
+		.filter(statement -> statement.fetchSize(FETCH_SIZE)).map(ReactiveStudentRepository::toStudent)
+		.all();
+    }
+
+    public Mono<Student> findById(Long studentId) {
+	return databaseClient.sql(SELECT_STUDENT + " WHERE id = :id").bind("id", studentId)
+		.map(ReactiveStudentRepository::toStudent).one();
+    }
+
+    public Mono<Student> findByEmail(String email) {
+	return databaseClient.sql(SELECT_STUDENT + " WHERE normalized_email = :email")
+		.bind("email", Student.normalizeEmail(email)).map(ReactiveStudentRepository::toStudent).one();
+    }
+
+    @Override
+    public void destroy() {
+	connectionPool.dispose();
+    }
+
+    private static Student toStudent(Readable row) {
+	return new Student(row.get("id", Long.class), row.get("name", String.class), row.get("email", String.class),
+		row.get("dob", LocalDate.class));
+    }
+
+    private static ConnectionFactoryOptions options(String url, String username, String password) {
+	ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+	if (!username.isEmpty()) {
+	    options.option(ConnectionFactoryOptions.USER, username);
+	}
+	if (!password.isEmpty()) {
+	    options.option(ConnectionFactoryOptions.PASSWORD, password);
+	}
+	return options.build();
+    }
+}
@@ -0,0 +1,104 @@
+package me.subhas.sms.student.data;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hands out replica connections inside read-only transactions and primary
+ * connections everywhere else. The transaction managers fetch a connection
+ * before they publish the read-only flag, so this has to be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}, which defers the lookup to the first
+ * statement.
+ * <p>
+ * With a non-zero {@code readYourWrites} window, read-only transactions also
+ * go to the primary until that long after the last write committed, so that a
+ * client does not read back data the replica has not received yet. The window
+ * applies to every reader, so it should be sized to the replica lag.
+ * <p>
+ * Reads run through {@link #onPrimary(Supplier)} stay on the primary whatever
+ * the window. They are for results that are kept after the read, such as cache
+ * entries, which would otherwise hold the replica's older row for their whole
+ * lifetime rather than for the replica lag.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    enum Target {
+	PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private final long readYourWritesNanos;
+    private volatile long lastWriteNanos;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWrites) {
+	this.readYourWritesNanos = readYourWrites.toNanos();
+	this.lastWriteNanos = System.nanoTime() - readYourWritesNanos;
+	setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+	setDefaultTargetDataSource(primary);
+	afterPropertiesSet();
+    }
+
+    public static DataSource lazy(DataSource primary, DataSource replica, Duration readYourWrites) {
+	return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, readYourWrites));
+    }
+
+    /**
+     * Runs {@code work} with its read-only transactions on the primary. The
+     * connection is looked up at the first statement, so the transaction has to
+     * run inside {@code work}.
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+	if (isOnPrimary()) {
+	    return work.get();
+	}
+	PRIMARY.set(Boolean.TRUE);
+	try {
+	    return work.get();
+	} finally {
+	    PRIMARY.remove();
+	}
+    }
+
+    public static boolean isOnPrimary() {
+	return PRIMARY.get() != null;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+	if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+	    recordWrite();
+	    return Target.PRIMARY;
+	}
+	if (isOnPrimary()) {
+	    return Target.PRIMARY;
+	}
+	return System.nanoTime() - lastWriteNanos < readYourWritesNanos ? Target.PRIMARY : Target.REPLICA;
+    }
+
+    /**
+     * Only read-write transactions count as writes; connections taken outside a
+     * transaction are schema setup and metadata probes.
+     */
+    private void recordWrite() {
+	if (readYourWritesNanos == 0 || !TransactionSynchronizationManager.isActualTransactionActive()) {
+	    return;
+	}
+	lastWriteNanos = System.nanoTime();
+	if (TransactionSynchronizationManager.isSynchronizationActive()) {
+	    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+		@Override
+		public void afterCompletion(int status) {
+		    lastWriteNanos = System.nanoTime();
+		}
+	    });
+	}
+    }
+}
@@ -0,0 +1,52 @@
+package me.subhas.sms.student.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Hands out connections of the shard selected through {@link StudentShards},
+ * and of shard 0 outside of a shard selection, which is where schema
+ * validation, health checks and other metadata probes go. The shard has to be
+ * selected before the transaction starts, as that is when it takes its
+ * connection. Closing this closes the shards' pools.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+	this.shards = List.copyOf(shards);
+	Map<Object, Object> targets = new HashMap<>();
+	for (int shard = 0; shard < shards.size(); shard++) {
+	    targets.put(shard, shards.get(shard));
+	}
+	setTargetDataSources(targets);
+	setDefaultTargetDataSource(shards.get(0));
+	setLenientFallback(false);
+	afterPropertiesSet();
+    }
+
+    public List<DataSource> getShards() {
+	return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+	return StudentShards.current();
+    }
+
+    @Override
+    public void close() throws IOException {
+	for (DataSource shard : shards) {
+	    if (shard instanceof Closeable closeable) {
+		closeable.close();
+	    }
+	}
+    }
+}
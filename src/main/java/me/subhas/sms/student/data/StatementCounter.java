@@ -0,0 +1,69 @@
+package me.subhas.sms.student.data;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between
+ * {@link #start()} and {@link #stop()}. Registered through
+ * {@code hibernate.session_factory.statement_inspector}, so Hibernate creates
+ * the instance and the count lives in a thread local.
+ * <p>
+ * Work handed to other threads is counted only when wrapped with
+ * {@link #propagating(Callable)}, as the shard scatter-gather does. A batched
+ * lookup ({@code StudentLoader}) is counted once, on the request whose thread
+ * ran the query, and not on the others that waited for it.
+ */
+public class StatementCounter implements StatementInspector {
+    private static final long serialVersionUID = 1L;
+    private static final ThreadLocal<AtomicInteger> COUNT = new ThreadLocal<>();
+
+    public static void start() {
+	COUNT.set(new AtomicInteger());
+    }
+
+    /**
+     * Returns the number of statements since {@link #start()}, or -1 when
+     * counting was not started on this thread.
+     */
+    public static int stop() {
+	AtomicInteger count = COUNT.get();
+	COUNT.remove();
+	return count == null ? -1 : count.get();
+    }
+
+    /**
+     * Wraps {@code work}, to be run on another thread, so that its statements
+     * add to the count of the calling thread.
+     */
+    public static <T> Callable<T> propagating(Callable<T> work) {
+	AtomicInteger count = COUNT.get();
+	if (count == null) {
+	    return work;
+	}
+	return () -> {
+	    AtomicInteger previous = COUNT.get();
+	    COUNT.set(count);
+	    try {
+		return work.call();
+	    } finally {
+		if (previous == null) {
+		    COUNT.remove();
+		} else {
+		    COUNT.set(previous);
+		}
+	    }
+	};
+    }
+
+    @Override
+    public String inspect(String sql) {
+	AtomicInteger count = COUNT.get();
+	if (count != null) {
+	    count.incrementAndGet();
+	}
+	return sql;
+    }
+}
@@ -0,0 +1,105 @@
+package me.subhas.sms.student.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import me.subhas.sms.student.data.entity.AgeClock;
+
+/**
+ * Writes the student table as RFC 4180 CSV straight from a forward-only JDBC
+ * result set. Rows are fetched {@code fetchSize} at a time and written as they
+ * arrive without becoming entities, so memory use does not grow with the table.
+ * The transaction is required: the PostgreSQL driver only honours the fetch
+ * size with auto-commit off, and otherwise reads the whole result up front.
+ * Shards are exported one after the other, which keeps the rows in id order.
+ */
+@Repository
+public class StudentCsvExporter {
+    static final String HEADER = "id,name,email,dob,age\r\n";
+    private static final String SELECT_STUDENTS = "SELECT id, name, email, dob FROM student ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StudentShards studentShards;
+    private final int fetchSize;
+
+    public StudentCsvExporter(JdbcTemplate jdbcTemplate, StudentShards studentShards,
+	    @Value("${student.export.fetch-size:1000}") int fetchSize) {
+	this.jdbcTemplate = jdbcTemplate;
+	this.studentShards = studentShards;
+	this.fetchSize = fetchSize;
+    }
+
+    public void writeCsv(Writer writer) throws IOException {
+	writer.write(HEADER);
+	LocalDate today = AgeClock.today();
+	StringBuilder row = new StringBuilder(128);
+	RowCallbackHandler writeRow = resultSet -> {
+	    row.setLength(0);
+	    row.append(resultSet.getLong(1)).append(',');
+	    appendField(row, resultSet.getString(2));
+	    row.append(',');
+	    appendField(row, resultSet.getString(3));
+	    row.append(',');
+	    LocalDate dob = resultSet.getObject(4, LocalDate.class);
+	    if (dob != null) {
+		row.append(dob).append(',').append(AgeClock.ageOn(dob, today));
+	    } else {
+		row.append(',');
+	    }
+	    row.append("\r\n");
+	    try {
+		writer.append(row);
+	    } catch (IOException ex) {
+		throw new UncheckedIOException(ex);
+	    }
+	};
+	try {
+	    for (int shard = 0; shard < studentShards.count(); shard++) {
+		studentShards.read(shard, () -> {
+		    jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(SELECT_STUDENTS,
+				ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			statement.setFetchSize(fetchSize);
+			return statement;
+		    }, writeRow);
+		    return null;
+		});
+	    }
+	} catch (UncheckedIOException ex) {
+	    throw ex.getCause();
+	}
+    }
+
+    static void appendField(StringBuilder row, String value) {
+	if (value == null) {
+	    return;
+	}
+	boolean quote = false;
+	for (int i = 0; i < value.length() && !quote; i++) {
+	    char c = value.charAt(i);
+	    quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+	}
+	if (!quote) {
+	    row.append(value);
+	    return;
+	}
+	row.append('"');
+	for (int i = 0; i < value.length(); i++) {
+	    char c = value.charAt(i);
+	    if (c == '"') {
+		row.append('"');
+	    }
+	    row.append(c);
+	}
+	row.append('"');
+    }
+}
@@ -1,15 +1,150 @@
 package me.subhas.sms.student.data;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
 import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
 
 @Repository
-public interface StudentRepository extends JpaRepository<Student, Long> {
-    @Query("SELECT s from Student s WHERE s.email = ?1")
-    Optional<Student> findByStudentEmail(String email);
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentViewRepository {
+    /**
+     * Select clause shared by the read queries. The constructor expression yields
+     * unmanaged {@link StudentView}s, so reads skip the persistence context and
+     * the normalized email column.
+     */
+    String VIEW = "SELECT new me.subhas.sms.student.data.entity.StudentView(s.id, s.name, s.email, s.dob, s.version) ";
+
+    @Query(VIEW + "FROM Student s WHERE s.id = ?1")
+    Optional<StudentView> findViewById(Long studentId);
+
+    /**
+     * Students among {@code studentIds} in no particular order; unknown ids are
+     * left out.
+     */
+    @Query(VIEW + "FROM Student s WHERE s.id IN ?1")
+    List<StudentView> findViewsByIds(Collection<Long> studentIds);
+
+    @Query(VIEW + "FROM Student s WHERE s.normalizedEmail = ?1")
+    Optional<StudentView> findViewByNormalizedEmail(String normalizedEmail);
+
+    @Query("SELECT s from Student s WHERE s.normalizedEmail = ?1")
+    Optional<Student> findByNormalizedEmail(String normalizedEmail);
+
+    default Optional<Student> findByStudentEmail(String email) {
+	return findByNormalizedEmail(Student.normalizeEmail(email));
+    }
+
+    @Query("SELECT s.normalizedEmail FROM Student s WHERE s.normalizedEmail IN ?1")
+    List<String> findTakenEmails(Collection<String> normalizedEmails);
+
+    /**
+     * Substring match on name and email, prefix matches first. The patterns must
+     * be lower-cased with LIKE wildcards escaped by a backslash; on Postgres both
+     * predicates are served by trigram indexes.
+     */
+    @Query(VIEW + "FROM Student s WHERE lower(s.name) LIKE ?1 ESCAPE '\\' OR s.normalizedEmail LIKE ?1 ESCAPE '\\' "
+	    + "ORDER BY CASE WHEN lower(s.name) LIKE ?2 ESCAPE '\\' OR s.normalizedEmail LIKE ?2 ESCAPE '\\' "
+	    + "THEN 0 ELSE 1 END, s.name, s.id")
+    List<StudentView> search(String containsPattern, String prefixPattern, Pageable pageable);
+
+    @Query(VIEW + "FROM Student s WHERE s.id > ?1 ORDER BY s.id")
+    List<StudentView> findPageAfter(Long afterId, Pageable pageable);
+
+    @Query(VIEW + "FROM Student s WHERE s.id > ?1 AND s.dob BETWEEN ?2 AND ?3 ORDER BY s.id")
+    List<StudentView> findPageAfterBornBetween(Long afterId, LocalDate from, LocalDate to, Pageable pageable);
+
+    @Query("SELECT s.id FROM Student s WHERE s.id IN ?1")
+    List<Long> findExistingIds(Collection<Long> studentIds);
+
+    @Query("SELECT s.normalizedEmail FROM Student s WHERE s.id = ?1")
+    Optional<String> findNormalizedEmailById(Long studentId);
+
+    /*
+     * The student_email index, consulted only when sharded; each call must run
+     * on the shard that StudentShards.shardFor picks for the email.
+     */
+
+    @Query(value = "SELECT normalized_email FROM student_email WHERE normalized_email IN ?1", nativeQuery = true)
+    List<String> findIndexedEmails(Collection<String> normalizedEmails);
+
+    /**
+     * Fails on the {@code student_email} primary key when the email is already
+     * indexed, for this or any other student.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO student_email (normalized_email, student_id) VALUES (?1, ?2)", nativeQuery = true)
+    int indexEmail(String normalizedEmail, Long studentId);
+
+    @Modifying
+    @Query(value = "DELETE FROM student_email WHERE normalized_email = ?1 AND student_id = ?2", nativeQuery = true)
+    int unindexEmail(String normalizedEmail, Long studentId);
+
+    @Query(value = "SELECT student_id FROM student_email WHERE normalized_email = ?1", nativeQuery = true)
+    Optional<Long> findIndexedStudentId(String normalizedEmail);
+
+    /**
+     * As {@link #unindexEmail(String, Long)}, but only for an entry claimed more
+     * than a minute ago, which no update still in flight can be relying on.
+     */
+    @Modifying
+    @Query(value = "DELETE FROM student_email WHERE normalized_email = ?1 AND student_id = ?2 "
+	    + "AND claimed_at < CURRENT_TIMESTAMP - INTERVAL '1' MINUTE", nativeQuery = true)
+    int unindexStaleEmail(String normalizedEmail, Long studentId);
+
+    /**
+     * Deletes in one statement, unlike {@link #deleteById(Object)} which loads the
+     * entity first. Returns the number of rows removed.
+     */
+    @Modifying
+    @Query("DELETE FROM Student s WHERE s.id = ?1")
+    int deleteStudentById(Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM Student s WHERE s.id IN ?1")
+    int deleteStudentsByIds(Collection<Long> studentIds);
+
+    /**
+     * Partial update in one statement; {@code null} arguments keep the current
+     * value. Bumps the version so that ETags and If-Match stay correct.
+     */
+    @Modifying
+    @Query("UPDATE Student s SET s.name = coalesce(?2, s.name), s.email = coalesce(?3, s.email), "
+	    + "s.normalizedEmail = coalesce(?4, s.normalizedEmail), s.version = s.version + 1 WHERE s.id = ?1")
+    int updateStudent(Long studentId, String name, String email, String normalizedEmail);
+
+    @Modifying
+    @Query("UPDATE Student s SET s.name = coalesce(?2, s.name), s.email = coalesce(?3, s.email), "
+	    + "s.normalizedEmail = coalesce(?4, s.normalizedEmail), s.version = s.version + 1 "
+	    + "WHERE s.id = ?1 AND s.version = ?5")
+    int updateStudentAtVersion(Long studentId, String name, String email, String normalizedEmail, Long version);
+
+    /**
+     * Streams every student in id order through a forward-only JDBC cursor. The
+     * constructor expression yields unmanaged instances, so the persistence
+     * context does not grow with the table. Must be consumed inside a
+     * transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new me.subhas.sms.student.data.entity.Student(s.id, s.name, s.email, s.dob) FROM Student s ORDER BY s.id")
+    Stream<Student> streamAll();
+
+    /**
+     * As {@link #streamAll()}, but yielding views, which carry the version.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(VIEW + "FROM Student s ORDER BY s.id")
+    Stream<StudentView> streamViews();
 }
@@ -0,0 +1,230 @@
+package me.subhas.sms.student.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Placement of students on the shards listed in
+ * {@code student.datasource.shards}, and transactions against one shard at a
+ * time. Without that property there is a single shard, and every method
+ * behaves as a plain transaction on the one database.
+ * <p>
+ * A new student goes to the shard picked by the hash of its normalized email.
+ * The shard number is kept in the id, above the {@link #SEQUENCE_BITS} taken
+ * from that shard's own {@code student_seq}, so a student can be found from its
+ * id alone. Shard 0 ids are plain sequence values, as before sharding. Ids sort
+ * shard by shard, and the shard count is capped so that ids stay below 2^53,
+ * the largest integer a JavaScript client reads exactly.
+ * <p>
+ * The selected shard is held in a thread-local while the work runs; it is read
+ * by {@link ShardRoutingDataSource} when the transaction takes its connection,
+ * and by the id generator.
+ */
+@Component
+public class StudentShards implements DisposableBean {
+    public static final int SEQUENCE_BITS = 48;
+    public static final int MAX_SHARDS = 32;
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int count;
+    private final TransactionOperations reads;
+    private final TransactionOperations writes;
+    private final ExecutorService scatter;
+
+    @Autowired
+    public StudentShards(PlatformTransactionManager transactionManager,
+	    @Value("${student.datasource.shards:}") List<String> shardUrls) {
+	this(Math.max(1, shardUrls.size()), transaction(transactionManager, true, shardUrls.size() > 1),
+		transaction(transactionManager, false, shardUrls.size() > 1));
+    }
+
+    StudentShards(int count, TransactionOperations reads, TransactionOperations writes) {
+	if (count > MAX_SHARDS) {
+	    throw new IllegalArgumentException(count + " shards configured, at most " + MAX_SHARDS + " are supported");
+	}
+	this.count = count;
+	this.reads = reads;
+	this.writes = writes;
+	this.scatter = count > 1 ? Executors.newVirtualThreadPerTaskExecutor() : null;
+    }
+
+    /**
+     * A single shard without transactions, for tests that mock the repository.
+     */
+    public static StudentShards unsharded() {
+	return new StudentShards(1, TransactionOperations.withoutTransaction(),
+		TransactionOperations.withoutTransaction());
+    }
+
+    /**
+     * Shard selected on the calling thread, {@code null} outside of
+     * {@link #read} and {@link #write}.
+     */
+    public static Integer current() {
+	return CURRENT.get();
+    }
+
+    public static long shardedId(int shard, long sequenceValue) {
+	return ((long) shard << SEQUENCE_BITS) | sequenceValue;
+    }
+
+    public int count() {
+	return count;
+    }
+
+    public boolean isSharded() {
+	return count > 1;
+    }
+
+    /**
+     * Shard holding {@code studentId}. Ids naming a shard that does not exist
+     * map to shard 0, where they are simply not found.
+     */
+    public int shardOf(Long studentId) {
+	if (count == 1 || studentId == null || studentId < 0) {
+	    return 0;
+	}
+	long shard = studentId >>> SEQUENCE_BITS;
+	return shard < count ? (int) shard : 0;
+    }
+
+    /**
+     * Shard for a new student with this normalized email, which is also the
+     * shard holding that email's entry in the global email index. The hash must
+     * not change between releases, so it is computed here rather than relying
+     * on a library.
+     */
+    public int shardFor(String normalizedEmail) {
+	if (count == 1 || normalizedEmail == null) {
+	    return 0;
+	}
+	int hash = normalizedEmail.hashCode() * 0x9E3779B9;
+	return Math.floorMod(hash ^ (hash >>> 16), count);
+    }
+
+    public <T> T read(int shard, Supplier<T> work) {
+	return on(shard, () -> reads.execute(status -> work.get()));
+    }
+
+    /**
+     * As {@link #read}, but kept off the read replica, for reads whose result
+     * outlives the request.
+     */
+    public <T> T readPrimary(int shard, Supplier<T> work) {
+	return ReplicaRoutingDataSource.onPrimary(() -> read(shard, work));
+    }
+
+    public <T> T write(int shard, Supplier<T> work) {
+	return on(shard, () -> writes.execute(status -> work.get()));
+    }
+
+    public void write(int shard, Runnable work) {
+	write(shard, () -> {
+	    work.run();
+	    return null;
+	});
+    }
+
+    /**
+     * Runs {@code work} for every shard, each in its own read-only transaction,
+     * and returns the results in shard order.
+     */
+    public <T> List<T> readEach(IntFunction<T> work) {
+	List<Integer> all = new ArrayList<>(count);
+	for (int shard = 0; shard < count; shard++) {
+	    all.add(shard);
+	}
+	return readEach(all, work);
+    }
+
+    /**
+     * Scatter-gather over {@code shards}: with more than one they are read in
+     * parallel, and the first failure is rethrown once all have finished. A
+     * caller inside {@link #readPrimary} keeps its workers on the primary too,
+     * and their statements count towards the caller's {@link StatementCounter}.
+     */
+    public <T> List<T> readEach(Collection<Integer> shards, IntFunction<T> work) {
+	List<T> results = new ArrayList<>(shards.size());
+	if (shards.size() == 1 || scatter == null) {
+	    for (int shard : shards) {
+		results.add(read(shard, () -> work.apply(shard)));
+	    }
+	    return results;
+	}
+	boolean primary = ReplicaRoutingDataSource.isOnPrimary();
+	List<Future<T>> futures = new ArrayList<>(shards.size());
+	for (int shard : shards) {
+	    futures.add(scatter.submit(StatementCounter.propagating(() -> primary
+		    ? readPrimary(shard, () -> work.apply(shard))
+		    : read(shard, () -> work.apply(shard)))));
+	}
+	RuntimeException failure = null;
+	for (Future<T> future : futures) {
+	    try {
+		results.add(future.get());
+	    } catch (ExecutionException ex) {
+		if (failure == null) {
+		    failure = ex.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(ex);
+		}
+	    } catch (InterruptedException ex) {
+		Thread.currentThread().interrupt();
+		throw new IllegalStateException("Interrupted while reading the shards", ex);
+	    }
+	}
+	if (failure != null) {
+	    throw failure;
+	}
+	return results;
+    }
+
+    @Override
+    public void destroy() {
+	if (scatter != null) {
+	    scatter.shutdownNow();
+	}
+    }
+
+    private static <T> T on(int shard, Supplier<T> work) {
+	Integer previous = CURRENT.get();
+	CURRENT.set(shard);
+	try {
+	    return work.get();
+	} finally {
+	    if (previous == null) {
+		CURRENT.remove();
+	    } else {
+		CURRENT.set(previous);
+	    }
+	}
+    }
+
+    /**
+     * With several shards each unit of work gets a transaction of its own, even
+     * when called inside another one, since that one is bound to a connection of
+     * whichever shard it started on.
+     */
+    private static TransactionOperations transaction(PlatformTransactionManager transactionManager, boolean readOnly,
+	    boolean sharded) {
+	TransactionTemplate template = new TransactionTemplate(transactionManager);
+	template.setReadOnly(readOnly);
+	template.setPropagationBehavior(sharded ? TransactionDefinition.PROPAGATION_REQUIRES_NEW
+		: TransactionDefinition.PROPAGATION_REQUIRED);
+	return template;
+    }
+}
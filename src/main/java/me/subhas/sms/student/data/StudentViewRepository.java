@@ -0,0 +1,22 @@
+package me.subhas.sms.student.data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * Queries whose select list depends on the fields a client asked for, which a
+ * static {@code @Query} cannot express.
+ */
+public interface StudentViewRepository {
+    /**
+     * Keyset page of students after {@code afterId}, optionally restricted to a
+     * date of birth range. Only id, version and those of {@code name},
+     * {@code email} and {@code dob} named in {@code attributes} are selected; the
+     * other components of the returned views are {@code null}.
+     */
+    List<StudentView> findSparsePageAfter(long afterId, LocalDate bornFrom, LocalDate bornTo, Set<String> attributes,
+	    int limit);
+}
@@ -0,0 +1,58 @@
+package me.subhas.sms.student.data;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import me.subhas.sms.student.data.entity.StudentView;
+
+class StudentViewRepositoryImpl implements StudentViewRepository {
+    private final EntityManager entityManager;
+
+    StudentViewRepositoryImpl(EntityManager entityManager) {
+	this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<StudentView> findSparsePageAfter(long afterId, LocalDate bornFrom, LocalDate bornTo,
+	    Set<String> attributes, int limit) {
+	boolean name = attributes.contains("name");
+	boolean email = attributes.contains("email");
+	boolean dob = attributes.contains("dob");
+	boolean bornBetween = bornFrom != null && bornTo != null;
+
+	StringBuilder jpql = new StringBuilder("SELECT s.id AS id, s.version AS version");
+	if (name) {
+	    jpql.append(", s.name AS name");
+	}
+	if (email) {
+	    jpql.append(", s.email AS email");
+	}
+	if (dob) {
+	    jpql.append(", s.dob AS dob");
+	}
+	jpql.append(" FROM Student s WHERE s.id > :afterId");
+	if (bornBetween) {
+	    jpql.append(" AND s.dob BETWEEN :bornFrom AND :bornTo");
+	}
+	jpql.append(" ORDER BY s.id");
+
+	TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class)
+		.setParameter("afterId", afterId).setMaxResults(limit);
+	if (bornBetween) {
+	    query.setParameter("bornFrom", bornFrom).setParameter("bornTo", bornTo);
+	}
+	List<Tuple> rows = query.getResultList();
+	List<StudentView> students = new ArrayList<>(rows.size());
+	for (Tuple row : rows) {
+	    students.add(new StudentView(row.get("id", Long.class), name ? row.get("name", String.class) : null,
+		    email ? row.get("email", String.class) : null, dob ? row.get("dob", LocalDate.class) : null,
+		    row.get("version", Long.class)));
+	}
+	return students;
+    }
+}
@@ -0,0 +1,51 @@
+package me.subhas.sms.student.data.entity;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * Source of "today" for age computations. The date is cached until the next
+ * local midnight, so serializing a page of students costs one
+ * {@link System#currentTimeMillis()} per entity instead of a time-zone
+ * resolution in {@link LocalDate#now()}.
+ */
+public final class AgeClock {
+    private static volatile Today today = Today.now();
+
+    private record Today(LocalDate date, long expiresAt) {
+	static Today now() {
+	    ZoneId zone = ZoneId.systemDefault();
+	    LocalDate date = LocalDate.now(zone);
+	    return new Today(date, date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli());
+	}
+    }
+
+    private AgeClock() {
+    }
+
+    public static LocalDate today() {
+	Today current = today;
+	if (System.currentTimeMillis() >= current.expiresAt()) {
+	    current = Today.now();
+	    today = current;
+	}
+	return current.date();
+    }
+
+    /**
+     * Completed years between {@code dob} and {@code date}, the same value as
+     * {@code Period.between(dob, date).getYears()} without allocating a Period.
+     * Like Period, it counts whole months towards zero, so a {@code dob} after
+     * {@code date} gives a negative age.
+     */
+    public static int ageOn(LocalDate dob, LocalDate date) {
+	long months = (date.getYear() - (long) dob.getYear()) * 12 + date.getMonthValue() - dob.getMonthValue();
+	int days = date.getDayOfMonth() - dob.getDayOfMonth();
+	if (months > 0 && days < 0) {
+	    months--;
+	} else if (months < 0 && days > 0) {
+	    months++;
+	}
+	return (int) (months / 12);
+    }
+}
@@ -1,26 +1,44 @@
 package me.subhas.sms.student.data.entity;
 
 import java.time.LocalDate;
-import java.time.Period;
+import java.util.Locale;
 
+import org.hibernate.annotations.GenericGenerator;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import jakarta.persistence.Transient;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 
 @Entity
-@Table
+@Table(uniqueConstraints = @UniqueConstraint(name = Student.EMAIL_CONSTRAINT, columnNames = "normalized_email"),
+	indexes = @Index(name = "student_dob_idx", columnList = "dob"))
 public class Student {
+    public static final String EMAIL_CONSTRAINT = "student_email_unique";
+    /**
+     * Primary key of the {@code student_email} table, the email index that
+     * keeps emails unique across shards.
+     */
+    public static final String EMAIL_INDEX_CONSTRAINT = "student_email_pkey";
+
     @Id
-    @SequenceGenerator(name = "student_seq", sequenceName = "student_seq", allocationSize = 1)
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "student_seq")
+    @GenericGenerator(name = StudentIdGenerator.SEQUENCE, type = StudentIdGenerator.class)
+    @GeneratedValue(generator = StudentIdGenerator.SEQUENCE)
     private Long id;
     private String name;
     private String email;
+    @Column(name = "normalized_email")
+    private String normalizedEmail;
     private LocalDate dob;
+    @Version
+    private Long version;
     @Transient
     private Integer age;
 
@@ -30,6 +48,7 @@ public class Student {
     public Student(String name, String email, LocalDate dob) {
 	this.name = name;
 	this.email = email;
+	this.normalizedEmail = normalizeEmail(email);
 	this.dob = dob;
     }
 
@@ -37,6 +56,7 @@ public class Student {
 	this.id = id;
 	this.name = name;
 	this.email = email;
+	this.normalizedEmail = normalizeEmail(email);
 	this.dob = dob;
     }
 
@@ -56,8 +76,13 @@ public class Student {
 	return dob;
     }
 
+    @JsonIgnore
+    public Long getVersion() {
+	return version;
+    }
+
     public Integer getAge() {
-	return Period.between(dob, LocalDate.now()).getYears();
+	return dob == null ? null : AgeClock.ageOn(dob, AgeClock.today());
     }
 
     public void setId(Long id) {
@@ -70,6 +95,7 @@ public class Student {
 
     public void setEmail(String email) {
 	this.email = email;
+	this.normalizedEmail = normalizeEmail(email);
     }
 
     public void setDob(LocalDate dob) {
@@ -80,6 +106,14 @@ public class Student {
 	this.age = age;
     }
 
+    /**
+     * Canonical form of an email used for uniqueness, so that addresses differing
+     * only in case or surrounding whitespace collide on the unique index.
+     */
+    public static String normalizeEmail(String email) {
+	return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public String toString() {
 	return String.format("Student [id=%s, name=%s, email=%s, dob=%s, age=%s]", id, name, email, dob, age);
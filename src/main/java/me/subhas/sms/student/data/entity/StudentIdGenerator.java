@@ -0,0 +1,97 @@
+package me.subhas.sms.student.data.entity;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import me.subhas.sms.student.data.StudentShards;
+
+/**
+ * Student ids drawn from the {@code student_seq} of the shard the session is
+ * connected to, tagged with that shard's number (see {@link StudentShards}).
+ * Each shard's sequence is read once per {@link #ALLOCATION_SIZE} ids, and
+ * each value handed out by the database closes a block of ids the way
+ * Hibernate's pooled optimizer does, so instances running either generator
+ * against the same sequence never hand out the same id.
+ * <p>
+ * The sequence is read outside the block's lock, so inserts on a shard do not
+ * queue behind a database round trip, and a virtual thread does not pin its
+ * carrier while it waits. When two threads find the block used up at once,
+ * the value read by the second is kept for the next refill.
+ */
+public class StudentIdGenerator implements IdentifierGenerator {
+    public static final String SEQUENCE = "student_seq";
+    public static final int ALLOCATION_SIZE = 50;
+
+    private final Map<Integer, Block> blocks = new ConcurrentHashMap<>();
+
+    /**
+     * Ids {@code next} up to {@code last} of one shard's sequence, plus a
+     * sequence value read while another thread refilled the block, or 0.
+     */
+    private static final class Block {
+	private final ReentrantLock lock = new ReentrantLock();
+	private long next = 1;
+	private long last;
+	private long spare;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+	Integer current = StudentShards.current();
+	int shard = current == null ? 0 : current;
+	Block block = blocks.computeIfAbsent(shard, key -> new Block());
+	long value = 0;
+	for (;;) {
+	    block.lock.lock();
+	    try {
+		if (block.next > block.last) {
+		    if (block.spare != 0) {
+			refill(block, block.spare);
+			block.spare = 0;
+		    } else if (value != 0) {
+			refill(block, value);
+			value = 0;
+		    }
+		}
+		if (block.next <= block.last) {
+		    if (value != 0 && block.spare == 0) {
+			block.spare = value;
+		    }
+		    return StudentShards.shardedId(shard, block.next++);
+		}
+	    } finally {
+		block.lock.unlock();
+	    }
+	    value = nextValue(session);
+	}
+    }
+
+    private static void refill(Block block, long value) {
+	block.last = value;
+	block.next = Math.max(value - ALLOCATION_SIZE + 1, 1);
+    }
+
+    private static long nextValue(SharedSessionContractImplementor session) {
+	String sql = session.getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(SEQUENCE);
+	JdbcCoordinator jdbc = session.getJdbcCoordinator();
+	PreparedStatement statement = jdbc.getStatementPreparer().prepareStatement(sql);
+	try {
+	    ResultSet resultSet = jdbc.getResultSetReturn().extract(statement, sql);
+	    resultSet.next();
+	    return resultSet.getLong(1);
+	} catch (SQLException ex) {
+	    throw session.getJdbcServices().getSqlExceptionHelper().convert(ex, "Could not read " + SEQUENCE, sql);
+	} finally {
+	    jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+	    jdbc.afterStatementExecution();
+	}
+    }
+}
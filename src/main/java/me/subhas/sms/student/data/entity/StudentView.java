@@ -0,0 +1,25 @@
+package me.subhas.sms.student.data.entity;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Read-only projection of a student, selected through a constructor expression
+ * or a tuple query so that reads neither load managed entities nor fetch
+ * columns they do not need. Attributes that were not selected are {@code null};
+ * the {@link #FIELD_FILTER} property filter keeps them out of the response.
+ */
+@JsonFilter(StudentView.FIELD_FILTER)
+@JsonPropertyOrder({ "id", "name", "email", "dob", "age" })
+public record StudentView(Long id, String name, String email, LocalDate dob, @JsonIgnore Long version) {
+    public static final String FIELD_FILTER = "studentFields";
+
+    @JsonProperty("age")
+    public Integer age() {
+	return dob == null ? null : AgeClock.ageOn(dob, AgeClock.today());
+    }
+}
@@ -0,0 +1,71 @@
+package me.subhas.sms.student.web;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import me.subhas.sms.student.business.exception.ServiceOverloadedException;
+
+/**
+ * Admits requests through one {@link ConcurrencyLimiter} for reads (GET and
+ * HEAD) and another for writes, so that a burst of one kind cannot starve the
+ * other. A request that gets no permit fails with
+ * {@link ServiceOverloadedException} before reaching the controller.
+ * <p>
+ * Asynchronous responses give their permit back when the handler returns and
+ * are not sampled, since streaming time depends on the client.
+ */
+public class ConcurrencyLimitInterceptor implements AsyncHandlerInterceptor {
+    private static final String PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".PERMIT";
+
+    private final ConcurrencyLimiter reads;
+    private final ConcurrencyLimiter writes;
+    private final Duration retryAfter;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimiter reads, ConcurrencyLimiter writes, Duration retryAfter) {
+	this.reads = reads;
+	this.writes = writes;
+	this.retryAfter = retryAfter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+	    throws Exception {
+	if (request.getDispatcherType() != DispatcherType.REQUEST) {
+	    return true;
+	}
+	boolean read = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+	ConcurrencyLimiter limiter = read ? reads : writes;
+	if (!limiter.tryAcquire()) {
+	    throw new ServiceOverloadedException(
+		    "Too many concurrent " + (read ? "reads" : "writes") + ", retry later", retryAfter);
+	}
+	request.setAttribute(PERMIT, new Permit(limiter, System.nanoTime()));
+	return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+	    Object handler) {
+	if (request.getAttribute(PERMIT) instanceof Permit permit) {
+	    request.removeAttribute(PERMIT);
+	    permit.limiter().release();
+	}
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+	    Exception ex) {
+	if (request.getAttribute(PERMIT) instanceof Permit permit) {
+	    request.removeAttribute(PERMIT);
+	    permit.limiter().release(System.nanoTime() - permit.startNanos());
+	}
+    }
+
+    private record Permit(ConcurrencyLimiter limiter, long startNanos) {
+    }
+}
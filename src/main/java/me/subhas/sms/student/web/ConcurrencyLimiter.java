@@ -0,0 +1,163 @@
+package me.subhas.sms.student.web;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Caps the number of requests in flight at a limit that follows observed
+ * latency, in the manner of the gradient limiters. A short and a long moving
+ * average of the latency are kept; while the short one stays within
+ * {@value #TOLERANCE} times the long one the limit grows by about its square
+ * root per sample, and as queueing inside the service pushes the short average
+ * up the limit shrinks towards half. Samples taken while less than half the
+ * limit is in use do not move it, so idle periods do not inflate it.
+ * <p>
+ * A request over the limit waits up to the queue timeout for a permit and is
+ * rejected when none frees up, or straight away when as many requests are
+ * already waiting as the limit allows in flight.
+ */
+public class ConcurrencyLimiter implements MeterBinder {
+    static final double TOLERANCE = 1.5;
+    private static final int MIN_LIMIT = 1;
+    private static final double SMOOTHING = 0.2;
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+
+    private final String name;
+    private final int maxLimit;
+    private final long queueTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    // Written under the lock, volatile for the gauges.
+    private volatile double limit;
+    private volatile int inFlight;
+    private volatile int waiting;
+    private volatile long rejected;
+    private volatile double shortRttNanos;
+    private double longRttNanos;
+
+    public ConcurrencyLimiter(String name, int initialLimit, int maxLimit, Duration queueTimeout) {
+	this.name = name;
+	this.maxLimit = maxLimit;
+	this.queueTimeoutNanos = queueTimeout.toNanos();
+	this.limit = Math.max(MIN_LIMIT, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * Takes a permit, waiting up to the queue timeout for one. Every successful
+     * call must be paired with one {@link #release} call.
+     */
+    public boolean tryAcquire() throws InterruptedException {
+	lock.lockInterruptibly();
+	try {
+	    if (inFlight < (int) limit) {
+		inFlight++;
+		return true;
+	    }
+	    if (queueTimeoutNanos == 0 || waiting >= (int) limit) {
+		rejected++;
+		return false;
+	    }
+	    waiting++;
+	    try {
+		long remaining = queueTimeoutNanos;
+		while (inFlight >= (int) limit) {
+		    if (remaining <= 0) {
+			rejected++;
+			return false;
+		    }
+		    remaining = released.awaitNanos(remaining);
+		}
+		inFlight++;
+		return true;
+	    } finally {
+		waiting--;
+	    }
+	} finally {
+	    lock.unlock();
+	}
+    }
+
+    /**
+     * Returns a permit and feeds the time it was held into the limit.
+     */
+    public void release(long rttNanos) {
+	lock.lock();
+	try {
+	    sample(rttNanos, inFlight);
+	    inFlight--;
+	    released.signalAll();
+	} finally {
+	    lock.unlock();
+	}
+    }
+
+    /**
+     * Returns a permit without a latency sample, for requests whose handling
+     * time says nothing about the service, such as streamed responses.
+     */
+    public void release() {
+	lock.lock();
+	try {
+	    inFlight--;
+	    released.signalAll();
+	} finally {
+	    lock.unlock();
+	}
+    }
+
+    private void sample(long rttNanos, int inFlightNow) {
+	if (longRttNanos == 0) {
+	    shortRttNanos = rttNanos;
+	    longRttNanos = rttNanos;
+	} else {
+	    shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+	    longRttNanos += (rttNanos - longRttNanos) / LONG_WINDOW;
+	}
+	// After a long overload the long average has crept up; let it recover.
+	if (longRttNanos / shortRttNanos > 2) {
+	    longRttNanos *= 0.95;
+	}
+	if (inFlightNow < limit / 2) {
+	    return;
+	}
+	double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / Math.max(1, shortRttNanos)));
+	double target = limit * gradient + Math.sqrt(limit);
+	limit = Math.max(MIN_LIMIT, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    public int getLimit() {
+	return (int) limit;
+    }
+
+    public int getInFlight() {
+	return inFlight;
+    }
+
+    public long getRejected() {
+	return rejected;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+	Gauge.builder("student.limiter.limit", this, ConcurrencyLimiter::getLimit)
+		.description("Current adaptive concurrency limit").tag("kind", name).register(registry);
+	Gauge.builder("student.limiter.in.flight", this, ConcurrencyLimiter::getInFlight)
+		.description("Requests holding a permit").tag("kind", name).register(registry);
+	Gauge.builder("student.limiter.queued", this, limiter -> limiter.waiting)
+		.description("Requests waiting for a permit").tag("kind", name).register(registry);
+	FunctionCounter.builder("student.limiter.rejected", this, ConcurrencyLimiter::getRejected)
+		.description("Requests shed with 503").tag("kind", name).register(registry);
+	TimeGauge.builder("student.limiter.rtt", this, TimeUnit.NANOSECONDS, limiter -> limiter.shortRttNanos)
+		.description("Short moving average of the time a permit is held").tag("kind", name).register(registry);
+    }
+}
@@ -0,0 +1,41 @@
+package me.subhas.sms.student.web;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import me.subhas.sms.student.business.exception.StudentNotFoundException;
+import me.subhas.sms.student.data.ReactiveStudentRepository;
+import me.subhas.sms.student.data.entity.Student;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping(path = "api/v1/reactive/students")
+public class ReactiveStudentController {
+    private final ReactiveStudentRepository reactiveStudentRepository;
+
+    public ReactiveStudentController(ReactiveStudentRepository reactiveStudentRepository) {
+	this.reactiveStudentRepository = reactiveStudentRepository;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Student> listStudents() {
+	return reactiveStudentRepository.findAll();
+    }
+
+    @GetMapping(path = "/{studentId}")
+    public Mono<Student> getStudent(@PathVariable("studentId") Long studentId) {
+	return reactiveStudentRepository.findById(studentId).switchIfEmpty(Mono.error(
+		() -> new StudentNotFoundException(String.format("Student with id %d does not exist", studentId))));
+    }
+
+    @GetMapping(params = "email")
+    public Mono<Student> getStudentByEmail(@RequestParam String email) {
+	return reactiveStudentRepository.findByEmail(email).switchIfEmpty(Mono
+		.error(() -> new StudentNotFoundException(String.format("Student with email %s does not exist", email))));
+    }
+}
@@ -0,0 +1,43 @@
+package me.subhas.sms.student.web;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import me.subhas.sms.student.data.StatementCounter;
+
+/**
+ * Records how many SQL statements each request issued as the
+ * {@code student.jpa.statements} distribution, tagged like
+ * {@code http.server.requests}.
+ */
+public class StatementCountFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    public StatementCountFilter(MeterRegistry meterRegistry) {
+	this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+	    throws ServletException, IOException {
+	StatementCounter.start();
+	try {
+	    filterChain.doFilter(request, response);
+	} finally {
+	    int statements = StatementCounter.stop();
+	    Object uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+	    DistributionSummary.builder("student.jpa.statements").description("SQL statements issued per request")
+		    .tag("method", request.getMethod()).tag("uri", uri == null ? "UNKNOWN" : uri.toString())
+		    .tag("status", Integer.toString(response.getStatus())).publishPercentileHistogram()
+		    .register(meterRegistry).record(statements);
+	}
+    }
+}
@@ -0,0 +1,31 @@
+package me.subhas.sms.student.web;
+
+import java.io.OutputStream;
+
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Streamed bodies with a timeout of their own. Spring MVC writes a returned
+ * {@link StreamingResponseBody} under the default async request timeout, which
+ * is the container's 30 seconds unless {@code spring.mvc.async.request-timeout}
+ * says otherwise, and a full-table stream that runs longer is cut off
+ * mid-body. Run as a {@link WebAsyncTask} instead, the body gets the timeout of
+ * its endpoint. Status and headers go on the response before the task starts.
+ */
+final class StreamingResponses {
+
+    private StreamingResponses() {
+    }
+
+    static WebAsyncTask<Void> stream(HttpServletResponse response, long timeout, StreamingResponseBody body) {
+	return new WebAsyncTask<>(timeout, () -> {
+	    OutputStream outputStream = response.getOutputStream();
+	    body.writeTo(outputStream);
+	    outputStream.flush();
+	    return null;
+	});
+    }
+}
@@ -0,0 +1,82 @@
+package me.subhas.sms.student.web;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import me.subhas.sms.student.business.StudentChangeLog;
+import me.subhas.sms.student.business.StudentChangeLog.Change;
+import me.subhas.sms.student.business.StudentChangeLog.Subscription;
+
+/**
+ * Server-Sent Events feed of committed student changes. Event ids are the
+ * change log's {@code <epoch>-<id>}, so a reconnecting client resumes through
+ * {@code Last-Event-ID}; a {@code reset} event means changes were missed, or
+ * the id came from another instance or an earlier start, and the client has to
+ * resynchronize from {@code GET api/v1/students}.
+ */
+@RestController
+@RequestMapping(path = "api/v1/students/changes")
+public class StudentChangeController {
+    private static final long HEARTBEAT_SECONDS = 15;
+
+    private final StudentChangeLog changeLog;
+    private final long timeout;
+
+    public StudentChangeController(StudentChangeLog changeLog,
+	    @Value("${student.changes.timeout-millis:1800000}") long timeout) {
+	this.changeLog = changeLog;
+	this.timeout = timeout;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+	    @RequestParam(required = false) String after) {
+	SseEmitter emitter = new SseEmitter(timeout);
+	Subscription subscription = changeLog.subscribe(lastEventId != null ? lastEventId : after);
+	// Each subscriber is drained by its own virtual thread, so a slow connection
+	// only ever backs up its own bounded queue.
+	Thread sender = Thread.ofVirtual().name("student-changes").unstarted(() -> send(subscription, emitter));
+	Runnable stop = () -> {
+	    subscription.close();
+	    sender.interrupt();
+	};
+	emitter.onCompletion(stop);
+	emitter.onTimeout(stop);
+	emitter.onError(ex -> stop.run());
+	sender.start();
+	return emitter;
+    }
+
+    private void send(Subscription subscription, SseEmitter emitter) {
+	try (subscription) {
+	    if (subscription.isReset()) {
+		emitter.send(SseEmitter.event().name("reset").data(""));
+	    }
+	    while (!subscription.isOverflowed()) {
+		Change change = subscription.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+		if (change == null) {
+		    emitter.send(SseEmitter.event().comment("keep-alive"));
+		} else {
+		    emitter.send(SseEmitter.event().id(change.eventId())
+			    .name(change.event().type().name().toLowerCase(Locale.ROOT))
+			    .data(change.event(), MediaType.APPLICATION_JSON));
+		}
+	    }
+	    emitter.complete();
+	} catch (InterruptedException ex) {
+	    Thread.currentThread().interrupt();
+	} catch (IOException | IllegalStateException ex) {
+	    emitter.completeWithError(ex);
+	}
+    }
+}
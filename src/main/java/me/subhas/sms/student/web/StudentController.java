@@ -1,42 +1,196 @@
 package me.subhas.sms.student.web;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import jakarta.servlet.http.HttpServletResponse;
+import me.subhas.sms.student.business.BatchItemResult;
+import me.subhas.sms.student.business.DobRange;
+import me.subhas.sms.student.business.IngestionStatus;
+import me.subhas.sms.student.business.StudentField;
+import me.subhas.sms.student.business.StudentIngestion;
+import me.subhas.sms.student.business.StudentPage;
+import me.subhas.sms.student.business.StudentPatch;
 import me.subhas.sms.student.business.StudentService;
+import me.subhas.sms.student.business.StudentSuggestion;
+import me.subhas.sms.student.business.exception.IngestionNotFoundException;
+import me.subhas.sms.student.business.exception.StudentNotFoundException;
 import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
 
 @RestController
 @RequestMapping(path = "api/v1/students")
 public class StudentController {
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final StudentService studentService;
+    private final StudentIngestion studentIngestion;
+    private final ObjectWriter studentWriter;
+    private final long streamTimeout;
 
-    public StudentController(StudentService studentService) {
+    public StudentController(StudentService studentService, StudentIngestion studentIngestion,
+	    ObjectMapper objectMapper, @Value("${student.stream.timeout-millis:3600000}") long streamTimeout) {
 	this.studentService = studentService;
+	this.studentIngestion = studentIngestion;
+	this.studentWriter = objectMapper.writerFor(Student.class);
+	this.streamTimeout = streamTimeout;
     }
 
     @GetMapping
-    public List<Student> listStudents() {
-	return studentService.listStudents();
+    public ResponseEntity<MappingJacksonValue> listStudents(@RequestParam(required = false) Long after,
+	    @RequestParam(defaultValue = "" + StudentService.DEFAULT_PAGE_SIZE) int size,
+	    @RequestParam(required = false) Integer minAge, @RequestParam(required = false) Integer maxAge,
+	    @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornFrom,
+	    @RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate bornTo,
+	    @RequestParam(required = false) String fields,
+	    @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+	DobRange dobRange = DobRange.forAges(minAge, maxAge).intersect(DobRange.of(bornFrom, bornTo));
+	Set<StudentField> selected = StudentField.parse(fields);
+	StudentPage page = studentService.listStudents(after, size, dobRange, selected);
+	ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(StudentETags.of(page, accept))
+		.varyBy(HttpHeaders.ACCEPT);
+	if (page.next() != null) {
+	    String next = ServletUriComponentsBuilder.fromCurrentRequest().replaceQueryParam("after", page.next())
+		    .toUriString();
+	    response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+	}
+	return response.body(withFields(page.students(), selected));
+    }
+
+    /**
+     * Streams every student as newline delimited JSON, for up to
+     * {@code student.stream.timeout-millis} rather than the default async
+     * request timeout.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public WebAsyncTask<Void> streamStudents(HttpServletResponse response) {
+	StreamingResponseBody body = outputStream -> studentService.streamStudents(student -> {
+	    try {
+		outputStream.write(studentWriter.writeValueAsBytes(student));
+		outputStream.write('\n');
+	    } catch (IOException e) {
+		throw new UncheckedIOException(e);
+	    }
+	});
+	response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+	return StreamingResponses.stream(response, streamTimeout, body);
+    }
+
+    @GetMapping(path = "/search")
+    public MappingJacksonValue searchStudents(@RequestParam("q") String query,
+	    @RequestParam(defaultValue = "20") int limit, @RequestParam(required = false) String fields) {
+	return withFields(studentService.searchStudents(query, limit), StudentField.parse(fields));
+    }
+
+    @GetMapping(path = "/autocomplete")
+    public List<StudentSuggestion> autocomplete(@RequestParam String prefix,
+	    @RequestParam(defaultValue = "10") int limit) {
+	return studentService.suggestStudents(prefix, limit);
+    }
+
+    /**
+     * Multi-get, e.g. {@code ?ids=1,2,3}, answered from one query in the order
+     * the ids were given. Unknown ids are left out of the list rather than
+     * failing the request.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<MappingJacksonValue> getStudents(@RequestParam List<Long> ids,
+	    @RequestParam(required = false) String fields,
+	    @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+	Set<StudentField> selected = StudentField.parse(fields);
+	List<StudentView> students = studentService.findStudents(ids);
+	return ResponseEntity.ok().eTag(StudentETags.of(new StudentPage(students, null), accept))
+		.varyBy(HttpHeaders.ACCEPT).body(withFields(students, selected));
+    }
+
+    @GetMapping(params = "email")
+    public ResponseEntity<MappingJacksonValue> getStudentByEmail(@RequestParam String email,
+	    @RequestParam(required = false) String fields,
+	    @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+	Set<StudentField> selected = StudentField.parse(fields);
+	StudentView student = studentService.findStudentByEmail(email).orElseThrow(
+		() -> new StudentNotFoundException(String.format("Student with email %s does not exist", email)));
+	return ResponseEntity.ok().eTag(StudentETags.of(student, accept)).varyBy(HttpHeaders.ACCEPT)
+		.body(withFields(student, selected));
     }
 
+    /**
+     * A matching {@code If-None-Match} is answered with 304 by Spring MVC before
+     * the body is written, since the response carries an ETag. The cached view
+     * is fetched whole; {@code fields} only trims what is serialized.
+     */
     @GetMapping(path = "/{studentId}")
-    public Student getStudent(@PathVariable("studentId") Long studentId) {
-	return studentService.getStudent(studentId);
+    public ResponseEntity<MappingJacksonValue> getStudent(@PathVariable("studentId") Long studentId,
+	    @RequestParam(required = false) String fields,
+	    @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+	Set<StudentField> selected = StudentField.parse(fields);
+	StudentView student = studentService.findStudent(studentId)
+		.orElseThrow(() -> new StudentNotFoundException(studentId));
+	return ResponseEntity.ok().eTag(StudentETags.of(student, accept)).varyBy(HttpHeaders.ACCEPT)
+		.body(withFields(student, selected));
     }
 
+    /**
+     * Creates the student in the request, or, when {@code Prefer} asks for
+     * {@code respond-async}, queues it for a batched write and answers 202 with
+     * the pending status and its URL to poll.
+     */
     @PostMapping
-    public void createStudent(@RequestBody Student student) {
-	studentService.createStudent(student);
+    public ResponseEntity<IngestionStatus> createStudent(@RequestBody Student student,
+	    @RequestHeader(name = PREFER, required = false) String prefer) {
+	if (!prefersAsync(prefer)) {
+	    studentService.createStudent(student);
+	    return ResponseEntity.ok().build();
+	}
+	IngestionStatus status = studentIngestion.submit(student);
+	URI location = ServletUriComponentsBuilder.fromCurrentRequestUri().path("/ingestions/{trackingId}")
+		.buildAndExpand(status.trackingId()).toUri();
+	return ResponseEntity.accepted().location(location).header(PREFERENCE_APPLIED, RESPOND_ASYNC).body(status);
+    }
+
+    @GetMapping(path = "/ingestions/{trackingId}")
+    public IngestionStatus getIngestionStatus(@PathVariable("trackingId") String trackingId) {
+	return studentIngestion.findStatus(trackingId).orElseThrow(
+		() -> new IngestionNotFoundException("No ingestion with tracking id " + trackingId));
+    }
+
+    @PostMapping(path = "/batch")
+    public List<BatchItemResult> createStudents(@RequestBody List<Student> students) {
+	return studentService.createStudents(students);
     }
 
     @DeleteMapping(path = "/{studentId}")
@@ -44,9 +198,60 @@ public class StudentController {
 	studentService.deleteStudent(studentId);
     }
 
+    @DeleteMapping(path = "/batch")
+    public List<BatchItemResult> deleteStudents(@RequestBody List<Long> studentIds) {
+	return studentService.deleteStudents(studentIds);
+    }
+
+    @PatchMapping(path = "/batch")
+    public List<BatchItemResult> updateStudents(@RequestBody List<StudentPatch> patches) {
+	return studentService.updateStudents(patches);
+    }
+
     @PutMapping(path = "/{studentId}")
     public void updateStudent(@PathVariable("studentId") Long studentId, @RequestParam(required = false) String name,
-	    @RequestParam(required = false) String email) {
-	studentService.updateStudent(studentId, name, email);
+	    @RequestParam(required = false) String email,
+	    @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+	List<Long> expectedVersions = StudentETags.expectedVersions(ifMatch);
+	if (expectedVersions == null) {
+	    studentService.updateStudent(studentId, name, email);
+	} else if (expectedVersions.size() == 1) {
+	    studentService.updateStudent(studentId, name, email, expectedVersions.get(0));
+	} else {
+	    studentService.updateStudentAtAnyVersion(studentId, name, email, expectedVersions);
+	}
+    }
+
+    private static MappingJacksonValue withFields(Object body, Set<StudentField> fields) {
+	SimpleBeanPropertyFilter filter;
+	if (fields.containsAll(StudentField.ALL)) {
+	    filter = SimpleBeanPropertyFilter.serializeAll();
+	} else {
+	    Set<String> names = new HashSet<>();
+	    for (StudentField field : fields) {
+		names.add(field.jsonName());
+	    }
+	    filter = SimpleBeanPropertyFilter.filterOutAllExcept(names);
+	}
+	MappingJacksonValue value = new MappingJacksonValue(body);
+	value.setFilters(new SimpleFilterProvider().addFilter(StudentView.FIELD_FILTER, filter));
+	return value;
+    }
+
+    /**
+     * Whether one of the comma-separated preferences is {@code respond-async},
+     * ignoring the others and any parameters.
+     */
+    static boolean prefersAsync(String prefer) {
+	if (prefer == null) {
+	    return false;
+	}
+	for (String preference : prefer.split(",")) {
+	    String token = preference.split("[;=]", 2)[0].trim();
+	    if (token.equalsIgnoreCase(RESPOND_ASYNC)) {
+		return true;
+	    }
+	}
+	return false;
     }
 }
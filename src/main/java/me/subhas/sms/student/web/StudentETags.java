@@ -0,0 +1,110 @@
+package me.subhas.sms.student.web;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import me.subhas.sms.student.business.StudentPage;
+import me.subhas.sms.student.data.entity.AgeClock;
+import me.subhas.sms.student.data.entity.StudentView;
+
+/**
+ * Strong entity tags derived from the version column, so that a conditional
+ * GET can be answered without serializing the body. The current day is part of
+ * every tag because the serialized {@code age} changes with it; write
+ * preconditions only compare the version, as the age is not stored. A strong
+ * tag names one sequence of bytes, so the CBOR and Smile encodings, chosen
+ * through {@code Accept}, get a suffix of their own; JSON tags have none.
+ */
+final class StudentETags {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private StudentETags() {
+    }
+
+    static String of(StudentView student, String accept) {
+	return "\"" + student.version() + "-" + AgeClock.today().toEpochDay() + encoding(accept) + "\"";
+    }
+
+    static String of(StudentPage page, String accept) {
+	long hash = AgeClock.today().toEpochDay();
+	for (StudentView student : page.students()) {
+	    hash = mix(hash, student.id());
+	    hash = mix(hash, student.version());
+	}
+	hash = mix(hash, page.next());
+	return "\"" + Long.toHexString(hash) + "-" + page.students().size() + encoding(accept) + "\"";
+    }
+
+    /**
+     * Tag suffix of the encoding that Spring MVC writes for {@code accept}: the
+     * most specific, most preferred acceptable type decides, and the JSON
+     * converter, registered first, answers wildcards.
+     */
+    static String encoding(String accept) {
+	List<MediaType> requested;
+	try {
+	    requested = new ArrayList<>(MediaType.parseMediaTypes(accept));
+	    MimeTypeUtils.sortBySpecificity(requested);
+	} catch (IllegalArgumentException ex) {
+	    return "";
+	}
+	for (MediaType type : requested) {
+	    if (type.getQualityValue() == 0) {
+		continue;
+	    }
+	    if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+		return "";
+	    }
+	    if (type.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+		return "-cbor";
+	    }
+	    if (type.isCompatibleWith(SMILE)) {
+		return "-smile";
+	    }
+	}
+	return "";
+    }
+
+    /**
+     * Versions named by the tags of an {@code If-Match} header, in order, or
+     * {@code null} when any version is acceptable. A tag that is not one of ours
+     * names version -1, which no student has. A tag of any encoding and of any
+     * day names the version, so that a tag read before midnight still lets the
+     * write through.
+     */
+    static List<Long> expectedVersions(String ifMatch) {
+	if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+	    return null;
+	}
+	List<Long> versions = new ArrayList<>();
+	for (String tag : ifMatch.split(",")) {
+	    versions.add(version(tag.trim()));
+	}
+	return versions;
+    }
+
+    private static long version(String tag) {
+	if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+	    return -1L;
+	}
+	String[] parts = tag.substring(1, tag.length() - 1).split("-");
+	if (parts.length < 2 || parts.length > 3
+		|| (parts.length == 3 && !parts[2].equals("cbor") && !parts[2].equals("smile"))) {
+	    return -1L;
+	}
+	try {
+	    Long.parseLong(parts[1]);
+	    return Long.parseLong(parts[0]);
+	} catch (NumberFormatException ex) {
+	    return -1L;
+	}
+    }
+
+    private static long mix(long hash, Long value) {
+	long h = (hash ^ (value == null ? 0x9E3779B97F4A7C15L : value)) * 0xBF58476D1CE4E5B9L;
+	return h ^ (h >>> 31);
+    }
+}
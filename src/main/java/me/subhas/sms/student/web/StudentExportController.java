@@ -0,0 +1,108 @@
+package me.subhas.sms.student.web;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletResponse;
+import me.subhas.sms.student.data.StudentCsvExporter;
+
+@RestController
+@RequestMapping(path = "api/v1/students/export")
+public class StudentExportController {
+    static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final StudentCsvExporter studentCsvExporter;
+    private final long timeout;
+
+    public StudentExportController(StudentCsvExporter studentCsvExporter,
+	    @Value("${student.export.timeout-millis:3600000}") long timeout) {
+	this.studentCsvExporter = studentCsvExporter;
+	this.timeout = timeout;
+    }
+
+    /**
+     * Streams every student as CSV, gzip-compressed when the client accepts it.
+     * The body is written on an async thread so the export does not hold a
+     * request thread for its whole duration, and it may run for up to
+     * {@code student.export.timeout-millis} rather than the default async
+     * request timeout.
+     */
+    @GetMapping
+    public WebAsyncTask<Void> exportStudents(
+	    @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+	    HttpServletResponse response) {
+	boolean gzip = acceptsGzip(acceptEncoding);
+	StreamingResponseBody body = outputStream -> {
+	    OutputStream out = gzip ? new GZIPOutputStream(outputStream, BUFFER_SIZE) : outputStream;
+	    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+	    studentCsvExporter.writeCsv(writer);
+	    writer.flush();
+	    if (out instanceof GZIPOutputStream gzipStream) {
+		gzipStream.finish();
+	    }
+	};
+	response.setContentType(TEXT_CSV.toString());
+	response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+		ContentDisposition.attachment().filename("students.csv").build().toString());
+	response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+	if (gzip) {
+	    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+	}
+	return StreamingResponses.stream(response, timeout, body);
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} admits gzip: its own entry decides, else
+     * the {@code *} entry, and a quality value of 0 rules it out.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+	if (acceptEncoding == null) {
+	    return false;
+	}
+	Double gzip = null;
+	Double any = null;
+	for (String entry : acceptEncoding.split(",")) {
+	    String[] parts = entry.split(";");
+	    String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+	    double quality = quality(parts);
+	    if (coding.equals("gzip") || coding.equals("x-gzip")) {
+		gzip = gzip == null ? quality : Math.max(gzip, quality);
+	    } else if (coding.equals("*")) {
+		any = quality;
+	    }
+	}
+	Double accepted = gzip != null ? gzip : any;
+	return accepted != null && accepted > 0;
+    }
+
+    private static double quality(String[] parts) {
+	for (int i = 1; i < parts.length; i++) {
+	    String parameter = parts[i].trim();
+	    if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+		try {
+		    return Double.parseDouble(parameter.substring(2).trim());
+		} catch (NumberFormatException ex) {
+		    return 0;
+		}
+	    }
+	}
+	return 1;
+    }
+}
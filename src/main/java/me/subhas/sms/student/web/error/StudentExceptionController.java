@@ -1,13 +1,22 @@
 package me.subhas.sms.student.web.error;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import jakarta.servlet.http.HttpServletResponse;
+import me.subhas.sms.student.business.exception.BatchTooLargeException;
 import me.subhas.sms.student.business.exception.EmailAlreadyTakenException;
+import me.subhas.sms.student.business.exception.IngestionNotFoundException;
+import me.subhas.sms.student.business.exception.InvalidRangeException;
+import me.subhas.sms.student.business.exception.ServiceOverloadedException;
 import me.subhas.sms.student.business.exception.StudentNotFoundException;
+import me.subhas.sms.student.business.exception.StudentVersionMismatchException;
+import me.subhas.sms.student.business.exception.UnknownFieldException;
 
 @ControllerAdvice
 public class StudentExceptionController {
@@ -19,6 +28,13 @@ public class StudentExceptionController {
 	return new ErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    @ResponseBody
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    @ExceptionHandler(IngestionNotFoundException.class)
+    ErrorResponse exceptionHander(IngestionNotFoundException ex) {
+	return new ErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
     @ResponseBody
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     @ExceptionHandler(EmailAlreadyTakenException.class)
@@ -26,4 +42,47 @@ public class StudentExceptionController {
 	return new ErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
     }
 
+    @ResponseBody
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(InvalidRangeException.class)
+    ErrorResponse exceptionHander(InvalidRangeException ex) {
+	return new ErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(UnknownFieldException.class)
+    ErrorResponse exceptionHander(UnknownFieldException ex) {
+	return new ErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    @ExceptionHandler(StudentVersionMismatchException.class)
+    ErrorResponse exceptionHander(StudentVersionMismatchException ex) {
+	return new ErrorResponse(HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    ErrorResponse exceptionHander(ObjectOptimisticLockingFailureException ex) {
+	return new ErrorResponse(HttpStatus.CONFLICT, "Student was modified concurrently, retry the update");
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    @ExceptionHandler(BatchTooLargeException.class)
+    ErrorResponse exceptionHander(BatchTooLargeException ex) {
+	return new ErrorResponse(HttpStatus.PAYLOAD_TOO_LARGE, ex.getMessage());
+    }
+
+    @ResponseBody
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    @ExceptionHandler(ServiceOverloadedException.class)
+    ErrorResponse exceptionHander(ServiceOverloadedException ex, HttpServletResponse response) {
+	response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())));
+	return new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+
 }
@@ -0,0 +1,9 @@
+-- Global email index for sharded deployments: the row for an email lives on
+-- the shard its hash picks, whichever shard holds the student. Unused, and
+-- left empty, with a single database. A unique constraint rather than a
+-- primary key, as H2 reports key violations under a generated index name.
+CREATE TABLE student_email (
+    normalized_email varchar(255) NOT NULL,
+    student_id bigint NOT NULL,
+    CONSTRAINT student_email_pkey UNIQUE (normalized_email)
+);
@@ -0,0 +1,14 @@
+CREATE SEQUENCE student_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE student (
+    id bigint NOT NULL,
+    name varchar(255),
+    email varchar(255),
+    normalized_email varchar(255),
+    dob date,
+    version bigint NOT NULL DEFAULT 0,
+    CONSTRAINT student_pkey PRIMARY KEY (id),
+    CONSTRAINT student_email_unique UNIQUE (normalized_email)
+);
+
+CREATE INDEX student_dob_idx ON student (dob);
@@ -0,0 +1,3 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX student_name_trgm_idx ON student USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX student_email_trgm_idx ON student USING gin (normalized_email gin_trgm_ops);
@@ -0,0 +1,3 @@
+-- When each email was claimed, so that an entry left behind by a release that
+-- failed can be told apart from a claim whose update is still in flight.
+ALTER TABLE student_email ADD COLUMN claimed_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP;
@@ -0,0 +1,68 @@
+package me.subhas.sms.student.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import me.subhas.sms.student.business.exception.InvalidRangeException;
+import me.subhas.sms.student.data.entity.AgeClock;
+
+class DobRangeTests {
+
+	private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+	@Test
+	@DisplayName("Translates an age range into the matching date of birth range")
+	void test_forAges() {
+		DobRange range = DobRange.forAges(18, 21, TODAY);
+
+		assertEquals(new DobRange(LocalDate.of(2002, 3, 16), LocalDate.of(2006, 3, 15)), range);
+		assertEquals(21, AgeClock.ageOn(range.from(), TODAY));
+		assertEquals(22, AgeClock.ageOn(range.from().minusDays(1), TODAY));
+		assertEquals(18, AgeClock.ageOn(range.to(), TODAY));
+		assertEquals(17, AgeClock.ageOn(range.to().plusDays(1), TODAY));
+	}
+
+	@Test
+	@DisplayName("Leaves a missing bound open")
+	void test_forAges_openBounds() {
+		assertTrue(DobRange.forAges(null, null, TODAY).isUnbounded());
+		assertEquals(new DobRange(DobRange.EARLIEST, LocalDate.of(2006, 3, 15)), DobRange.forAges(18, null, TODAY));
+		assertFalse(DobRange.of(LocalDate.of(2000, 1, 1), null).isUnbounded());
+	}
+
+	@Test
+	@DisplayName("Intersects age and date of birth bounds")
+	void test_intersect() {
+		DobRange range = DobRange.forAges(18, 21, TODAY).intersect(DobRange.of(LocalDate.of(2004, 1, 1), null));
+
+		assertEquals(new DobRange(LocalDate.of(2004, 1, 1), LocalDate.of(2006, 3, 15)), range);
+	}
+
+	@Test
+	@DisplayName("Throws exception for negative, inverted or empty ranges")
+	void test_invalidRanges() {
+		assertThrows(InvalidRangeException.class, () -> DobRange.forAges(-1, null, TODAY));
+		assertThrows(InvalidRangeException.class, () -> DobRange.forAges(21, 18, TODAY));
+		assertThrows(InvalidRangeException.class,
+				() -> DobRange.of(LocalDate.of(2001, 1, 1), LocalDate.of(2000, 1, 1)));
+		assertThrows(InvalidRangeException.class,
+				() -> DobRange.forAges(30, null, TODAY).intersect(DobRange.of(LocalDate.of(2000, 1, 1), null)));
+	}
+
+	@Test
+	@DisplayName("Computes the same age as Period for leap day birthdays")
+	void test_ageOn_leapDay() {
+		LocalDate dob = LocalDate.of(2004, 2, 29);
+
+		assertEquals(18, AgeClock.ageOn(dob, LocalDate.of(2023, 2, 28)));
+		assertEquals(19, AgeClock.ageOn(dob, LocalDate.of(2023, 3, 1)));
+		assertEquals(20, AgeClock.ageOn(dob, LocalDate.of(2024, 2, 29)));
+	}
+}
@@ -0,0 +1,89 @@
+package me.subhas.sms.student.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import me.subhas.sms.student.business.StudentChangeLog.Subscription;
+
+class StudentChangeLogTests {
+
+	private final StudentChangeLog changeLog = new StudentChangeLog(3, 2);
+
+	@Test
+	@DisplayName("Delivers changes appended after subscribing with increasing ids")
+	void test_subscribe_live() throws Exception {
+		changeLog.append(StudentChangeEvent.deleted(1L));
+		Subscription subscription = changeLog.subscribe(null);
+		changeLog.append(StudentChangeEvent.created(2L, "Abc Xyz", "abc.xyz@school.com"));
+
+		StudentChangeLog.Change change = subscription.poll(0, TimeUnit.SECONDS);
+		assertEquals(2L, change.id());
+		assertEquals(StudentChangeEvent.created(2L, "Abc Xyz", "abc.xyz@school.com"), change.event());
+		assertNull(subscription.poll(0, TimeUnit.SECONDS));
+		assertFalse(subscription.isReset());
+	}
+
+	@Test
+	@DisplayName("Replays retained changes after the last seen id")
+	void test_subscribe_resume() throws Exception {
+		for (long id = 1; id <= 4; id++) {
+			changeLog.append(StudentChangeEvent.deleted(id));
+		}
+
+		Subscription subscription = changeLog.subscribe(changeLog.epoch() + "-2");
+
+		assertFalse(subscription.isReset());
+		assertEquals(3L, subscription.poll(0, TimeUnit.SECONDS).id());
+		assertEquals(4L, subscription.poll(0, TimeUnit.SECONDS).id());
+		assertNull(subscription.poll(0, TimeUnit.SECONDS));
+	}
+
+	@Test
+	@DisplayName("Resets a subscriber whose last seen change is no longer retained")
+	void test_subscribe_reset() throws Exception {
+		for (long id = 1; id <= 5; id++) {
+			changeLog.append(StudentChangeEvent.deleted(id));
+		}
+
+		assertTrue(changeLog.subscribe(changeLog.epoch() + "-1").isReset());
+		assertTrue(changeLog.subscribe(changeLog.epoch() + "-9").isReset());
+		assertFalse(changeLog.subscribe(changeLog.epoch() + "-2").isReset());
+	}
+
+	@Test
+	@DisplayName("Resets a subscriber resuming from an id of another start or instance")
+	void test_subscribe_otherEpoch() throws Exception {
+		StudentChangeLog restarted = new StudentChangeLog(3, 2);
+		for (long id = 1; id <= 5; id++) {
+			changeLog.append(StudentChangeEvent.deleted(id));
+			restarted.append(StudentChangeEvent.deleted(id));
+		}
+
+		assertTrue(restarted.subscribe(changeLog.epoch() + "-4").isReset());
+		assertTrue(restarted.subscribe("4").isReset());
+		assertFalse(restarted.subscribe(restarted.epoch() + "-4").isReset());
+	}
+
+	@Test
+	@DisplayName("Drops a subscriber that falls behind instead of blocking the writer")
+	void test_append_overflow() throws Exception {
+		Subscription subscription = changeLog.subscribe(null);
+		for (long id = 1; id <= 3; id++) {
+			changeLog.append(StudentChangeEvent.deleted(id));
+		}
+		changeLog.append(StudentChangeEvent.deleted(4L));
+
+		assertFalse(subscription.isOverflowed());
+		assertEquals(1L, subscription.poll(0, TimeUnit.SECONDS).id());
+		assertEquals(2L, subscription.poll(0, TimeUnit.SECONDS).id());
+		assertNull(subscription.poll(0, TimeUnit.SECONDS));
+		assertTrue(subscription.isOverflowed());
+	}
+}
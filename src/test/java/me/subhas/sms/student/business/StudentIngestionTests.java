@@ -0,0 +1,91 @@
+package me.subhas.sms.student.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import me.subhas.sms.student.business.IngestionStatus.State;
+import me.subhas.sms.student.business.exception.EmailAlreadyTakenException;
+import me.subhas.sms.student.business.exception.ServiceOverloadedException;
+import me.subhas.sms.student.data.entity.Student;
+
+class StudentIngestionTests {
+
+	private final StudentService studentService = mock(StudentService.class);
+
+	@Test
+	@DisplayName("Writes the queued students in one batch and records each outcome")
+	void test_writesQueuedStudentsInOneBatch() {
+		StudentIngestion ingestion = new StudentIngestion(studentService, 10, 500, Duration.ofMinutes(1),
+				Duration.ofSeconds(1));
+		when(studentService.createStudents(anyList())).thenReturn(List.of(BatchItemResult.created(0, 7L),
+				BatchItemResult.rejected(1, "Email is already taken"), BatchItemResult.created(2, 8L)));
+
+		IngestionStatus first = ingestion.submit(student("abc.xyz@school.com"));
+		IngestionStatus second = ingestion.submit(student("abc.xyz@school.com"));
+		IngestionStatus third = ingestion.submit(student("wuv.hij@school.com"));
+		assertEquals(State.PENDING, ingestion.findStatus(first.trackingId()).get().state());
+		ingestion.start();
+		ingestion.stop();
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Student>> batch = ArgumentCaptor.forClass(List.class);
+		verify(studentService).createStudents(batch.capture());
+		assertEquals(3, batch.getValue().size());
+		assertEquals(new IngestionStatus(first.trackingId(), State.CREATED, 7L, null),
+				ingestion.findStatus(first.trackingId()).get());
+		assertEquals(new IngestionStatus(second.trackingId(), State.REJECTED, null, "Email is already taken"),
+				ingestion.findStatus(second.trackingId()).get());
+		assertEquals(State.CREATED, ingestion.findStatus(third.trackingId()).get().state());
+	}
+
+	@Test
+	@DisplayName("Retries the rows one by one when the whole batch fails")
+	void test_retriesFailedBatchRowByRow() {
+		StudentIngestion ingestion = new StudentIngestion(studentService, 10, 500, Duration.ofMinutes(1),
+				Duration.ofSeconds(1));
+		when(studentService.createStudents(anyList())).thenThrow(new EmailAlreadyTakenException("Email is already taken"))
+				.thenReturn(List.of(BatchItemResult.created(0, 7L)))
+				.thenThrow(new EmailAlreadyTakenException("Email is already taken"));
+
+		IngestionStatus first = ingestion.submit(student("abc.xyz@school.com"));
+		IngestionStatus second = ingestion.submit(student("wuv.hij@school.com"));
+		ingestion.start();
+		ingestion.stop();
+
+		verify(studentService, times(3)).createStudents(anyList());
+		assertEquals(State.CREATED, ingestion.findStatus(first.trackingId()).get().state());
+		assertEquals(new IngestionStatus(second.trackingId(), State.REJECTED, null, "Email is already taken"),
+				ingestion.findStatus(second.trackingId()).get());
+	}
+
+	@Test
+	@DisplayName("Refuses submissions once the queue is full")
+	void test_queueFull() {
+		StudentIngestion ingestion = new StudentIngestion(studentService, 1, 500, Duration.ofMinutes(1),
+				Duration.ofSeconds(2));
+		ingestion.submit(student("abc.xyz@school.com"));
+
+		ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class,
+				() -> ingestion.submit(student("wuv.hij@school.com")));
+		assertEquals(Duration.ofSeconds(2), ex.getRetryAfter());
+		assertTrue(ingestion.findStatus("unknown").isEmpty());
+	}
+
+	private static Student student(String email) {
+		return new Student("Abc Xyz", email, LocalDate.of(1997, 12, 10));
+	}
+}
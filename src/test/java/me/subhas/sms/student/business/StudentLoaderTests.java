@@ -0,0 +1,144 @@
+package me.subhas.sms.student.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
+import me.subhas.sms.student.data.entity.StudentView;
+
+class StudentLoaderTests {
+
+	private static final Long IN_FLIGHT_ID = 99L;
+
+	private final StudentRepository studentRepository = mock(StudentRepository.class);
+
+	@Test
+	@DisplayName("Fetches concurrent lookups of different students with one IN query")
+	void test_batchesConcurrentLookups() throws Exception {
+		StudentLoader loader = new StudentLoader(studentRepository, StudentShards.unsharded(), Duration.ofMillis(200), 100);
+		when(studentRepository.findViewsByIds(anyCollection())).thenReturn(List.of(student(1L), student(3L)));
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			Future<Optional<StudentView>> inFlight = lookupInFlight(loader, executor, release);
+			List<Future<Optional<StudentView>>> lookups = new ArrayList<>();
+			for (long id = 1; id <= 3; id++) {
+				Long studentId = id;
+				lookups.add(executor.submit(() -> loader.load(studentId)));
+			}
+			assertEquals(Optional.of(student(1L)), lookups.get(0).get(5, TimeUnit.SECONDS));
+			assertTrue(lookups.get(1).get(5, TimeUnit.SECONDS).isEmpty());
+			assertEquals(Optional.of(student(3L)), lookups.get(2).get(5, TimeUnit.SECONDS));
+			release.countDown();
+			assertEquals(Optional.of(student(IN_FLIGHT_ID)), inFlight.get(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(studentRepository).findViewsByIds(Set.of(1L, 2L, 3L));
+		verify(studentRepository).findViewById(IN_FLIGHT_ID);
+		verifyNoMoreInteractions(studentRepository);
+	}
+
+	@Test
+	@DisplayName("Fetches a full batch without waiting for the window to pass")
+	void test_fullBatchFetchedEarly() throws Exception {
+		StudentLoader loader = new StudentLoader(studentRepository, StudentShards.unsharded(), Duration.ofMinutes(1), 2);
+		when(studentRepository.findViewsByIds(anyCollection())).thenReturn(List.of(student(1L), student(2L)));
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			lookupInFlight(loader, executor, release);
+			Future<Optional<StudentView>> first = executor.submit(() -> loader.load(1L));
+			Future<Optional<StudentView>> second = executor.submit(() -> loader.load(2L));
+			assertEquals(Optional.of(student(1L)), first.get(5, TimeUnit.SECONDS));
+			assertEquals(Optional.of(student(2L)), second.get(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	@DisplayName("Uses the single-row query at once for a lone lookup or when batching is off")
+	void test_singleLookup() {
+		when(studentRepository.findViewById(1L)).thenReturn(Optional.of(student(1L)));
+
+		StudentLoader loader = new StudentLoader(studentRepository, StudentShards.unsharded(), Duration.ofMinutes(1), 100);
+		assertEquals(Optional.of(student(1L)), assertTimeoutPreemptively(Duration.ofSeconds(5), () -> loader.load(1L)));
+		assertEquals(Optional.of(student(1L)), new StudentLoader(studentRepository, StudentShards.unsharded(), Duration.ZERO, 100).load(1L));
+
+		verify(studentRepository, never()).findViewsByIds(anyCollection());
+	}
+
+	@Test
+	@DisplayName("Fails every lookup of a batch whose query failed")
+	void test_failedBatch() throws Exception {
+		StudentLoader loader = new StudentLoader(studentRepository, StudentShards.unsharded(), Duration.ofMillis(200), 100);
+		QueryTimeoutException failure = new QueryTimeoutException("timeout");
+		when(studentRepository.findViewsByIds(anyCollection())).thenThrow(failure);
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			lookupInFlight(loader, executor, release);
+			Future<Optional<StudentView>> first = executor.submit(() -> loader.load(1L));
+			Future<Optional<StudentView>> second = executor.submit(() -> loader.load(2L));
+			assertSame(failure, assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS)).getCause());
+			assertSame(failure, assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS)).getCause());
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Starts a lookup that stays in flight until {@code release} is counted
+	 * down, so that the lookups started after it are batched.
+	 */
+	private Future<Optional<StudentView>> lookupInFlight(StudentLoader loader, ExecutorService executor,
+			CountDownLatch release) throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		when(studentRepository.findViewById(IN_FLIGHT_ID)).thenAnswer(invocation -> {
+			started.countDown();
+			release.await();
+			return Optional.of(student(IN_FLIGHT_ID));
+		});
+		Future<Optional<StudentView>> lookup = executor.submit(() -> loader.load(IN_FLIGHT_ID));
+		started.await();
+		return lookup;
+	}
+
+	private static StudentView student(Long id) {
+		return new StudentView(id, "Abc Xyz", "abc.xyz" + id + "@school.com", LocalDate.of(1997, 12, 10), 0L);
+	}
+}
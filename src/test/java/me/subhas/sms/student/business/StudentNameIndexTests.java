@@ -0,0 +1,131 @@
+package me.subhas.sms.student.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
+import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
+
+class StudentNameIndexTests {
+
+	private StudentRepository studentRepository;
+
+	private StudentNameIndex studentNameIndex;
+
+	@BeforeEach
+	void setUp() {
+		studentRepository = mock(StudentRepository.class);
+		studentNameIndex = new StudentNameIndex(studentRepository, StudentShards.unsharded(),
+				Duration.ofMinutes(10));
+	}
+
+	@Test
+	@DisplayName("Suggests students by any name word, the full name or the email prefix")
+	void test_suggest() {
+		studentNameIndex.put(1L, "Abc Xyz", "abc.xyz@school.com");
+		studentNameIndex.put(2L, "Xyz Hij", "wuv.hij@school.com");
+
+		assertEquals(List.of(new StudentSuggestion(1L, "Abc Xyz")), studentNameIndex.suggest("AB", 10));
+		assertEquals(List.of(new StudentSuggestion(1L, "Abc Xyz"), new StudentSuggestion(2L, "Xyz Hij")),
+				studentNameIndex.suggest("xy", 10));
+		assertEquals(List.of(new StudentSuggestion(2L, "Xyz Hij")), studentNameIndex.suggest("xyz  h", 10));
+		assertEquals(List.of(new StudentSuggestion(2L, "Xyz Hij")), studentNameIndex.suggest("wuv.", 10));
+		assertEquals(List.of(new StudentSuggestion(1L, "Abc Xyz")), studentNameIndex.suggest("xy", 1));
+		assertEquals(List.of(), studentNameIndex.suggest(" ", 10));
+	}
+
+	@Test
+	@DisplayName("Drops stale tokens when a student is renamed or removed")
+	void test_putAndRemove() {
+		studentNameIndex.put(1L, "Abc Xyz", "abc.xyz@school.com");
+		studentNameIndex.put(1L, "Klm Nop", "klm.nop@school.com");
+
+		assertEquals(List.of(), studentNameIndex.suggest("abc", 10));
+		assertEquals(List.of(new StudentSuggestion(1L, "Klm Nop")), studentNameIndex.suggest("klm", 10));
+
+		studentNameIndex.remove(1L);
+
+		assertEquals(List.of(), studentNameIndex.suggest("klm", 10));
+	}
+
+	@Test
+	@DisplayName("Rebuilds the index from the repository")
+	void test_rebuild() {
+		when(studentRepository.streamAll()).thenReturn(
+				Stream.of(new Student(7L, "Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10))));
+
+		studentNameIndex.rebuild();
+
+		assertEquals(List.of(new StudentSuggestion(7L, "Abc Xyz")), studentNameIndex.suggest("abc", 10));
+	}
+
+	@Test
+	@DisplayName("Drops students missing from the repository when rebuilding")
+	void test_rebuild_dropsMissing() {
+		studentNameIndex.put(3L, "Klm Nop", "klm.nop@school.com");
+		when(studentRepository.streamAll()).thenReturn(
+				Stream.of(new Student(7L, "Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10))));
+
+		studentNameIndex.rebuild();
+
+		assertEquals(List.of(), studentNameIndex.suggest("klm", 10));
+		assertEquals(List.of(new StudentSuggestion(7L, "Abc Xyz")), studentNameIndex.suggest("abc", 10));
+	}
+
+	@Test
+	@DisplayName("Reloads students changed while rebuilding instead of keeping the snapshot row")
+	void test_rebuild_changedDuringRebuild() {
+		when(studentRepository.streamAll()).thenAnswer(invocation -> {
+			studentNameIndex.onChange(StudentChangeEvent.deleted(7L));
+			studentNameIndex.onChange(StudentChangeEvent.updated(8L, "Renamed", null));
+			return Stream.of(new Student(7L, "Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10)),
+					new Student(8L, "Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15)));
+		});
+		when(studentRepository.findViewsByIds(anyCollection()))
+				.thenReturn(List.of(new StudentView(8L, "Renamed", "wuv.hij@school.com", null, 1L)));
+
+		studentNameIndex.rebuild();
+
+		assertEquals(List.of(), studentNameIndex.suggest("abc", 10));
+		assertEquals(List.of(), studentNameIndex.suggest("wuv h", 10));
+		assertEquals(List.of(new StudentSuggestion(8L, "Renamed")), studentNameIndex.suggest("ren", 10));
+	}
+
+	@Test
+	@DisplayName("Applies changes while the rebuild reloads changed students, and keeps them over the reload")
+	void test_rebuild_changesDuringReload() {
+		when(studentRepository.streamAll()).thenAnswer(invocation -> {
+			studentNameIndex.onChange(StudentChangeEvent.updated(8L, "Renamed", null));
+			return Stream.of(new Student(8L, "Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15)));
+		});
+		when(studentRepository.findViewsByIds(anyCollection())).thenAnswer(invocation -> {
+			CompletableFuture.runAsync(() -> {
+				studentNameIndex.onChange(StudentChangeEvent.updated(8L, "Klm Nop", null));
+				studentNameIndex.onChange(StudentChangeEvent.created(9L, "Abc Xyz", "abc.xyz@school.com"));
+			}).get(5, TimeUnit.SECONDS);
+			return List.of(new StudentView(8L, "Renamed", "wuv.hij@school.com", null, 1L));
+		});
+		studentNameIndex.put(8L, "Wuv Hij", "wuv.hij@school.com");
+
+		studentNameIndex.rebuild();
+
+		assertEquals(List.of(), studentNameIndex.suggest("ren", 10));
+		assertEquals(List.of(new StudentSuggestion(8L, "Klm Nop")), studentNameIndex.suggest("klm", 10));
+		assertEquals(List.of(new StudentSuggestion(9L, "Abc Xyz")), studentNameIndex.suggest("abc", 10));
+	}
+}
@@ -0,0 +1,139 @@
+package me.subhas.sms.student.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
+import me.subhas.sms.student.data.entity.StudentView;
+
+class StudentReadModelTests {
+
+	private StudentRepository studentRepository;
+
+	private StudentReadModel studentReadModel;
+
+	@BeforeEach
+	void setUp() {
+		studentRepository = mock(StudentRepository.class);
+		studentReadModel = new StudentReadModel(studentRepository, StudentShards.unsharded(), true,
+				Duration.ofMinutes(10));
+	}
+
+	@Test
+	@DisplayName("Serves lookups by id and email and pages from the rebuilt model")
+	void test_rebuild() {
+		when(studentRepository.streamViews()).thenReturn(Stream.of(student(1L, "Abc.Xyz@school.com", 1997),
+				student(3L, "wuv.hij@school.com", 2001), student(8L, "klm.nop@school.com", 1999)));
+		assertFalse(studentReadModel.isReady());
+
+		studentReadModel.rebuild();
+
+		assertTrue(studentReadModel.isReady());
+		assertEquals(3, studentReadModel.size());
+		assertEquals(Optional.of(student(3L, "wuv.hij@school.com", 2001)), studentReadModel.find(3L));
+		assertTrue(studentReadModel.find(2L).isEmpty());
+		assertEquals(Optional.of(student(1L, "Abc.Xyz@school.com", 1997)),
+				studentReadModel.findByEmail(" abc.xyz@SCHOOL.com"));
+		assertEquals(List.of(student(3L, "wuv.hij@school.com", 2001), student(8L, "klm.nop@school.com", 1999)),
+				studentReadModel.findPageAfter(2L, 10, DobRange.UNBOUNDED));
+		assertEquals(List.of(student(1L, "Abc.Xyz@school.com", 1997)),
+				studentReadModel.findPageAfter(0L, 1, DobRange.UNBOUNDED));
+		assertEquals(List.of(student(8L, "klm.nop@school.com", 1999)), studentReadModel.findPageAfter(1L, 10,
+				DobRange.of(LocalDate.of(1998, 1, 1), LocalDate.of(2000, 1, 1))));
+	}
+
+	@Test
+	@DisplayName("Reloads created and updated students and drops deleted ones")
+	void test_onChange() {
+		when(studentRepository.streamViews()).thenReturn(Stream.of(student(1L, "abc.xyz@school.com", 1997)));
+		studentReadModel.rebuild();
+
+		when(studentRepository.findViewById(5L)).thenReturn(Optional.of(student(5L, "wuv.hij@school.com", 2001)));
+		studentReadModel.onChange(StudentChangeEvent.created(5L, "Student 5", "wuv.hij@school.com"));
+		when(studentRepository.findViewById(1L)).thenReturn(Optional.of(student(1L, "renamed@school.com", 1997)));
+		studentReadModel.onChange(StudentChangeEvent.updated(1L, null, "renamed@school.com"));
+
+		assertEquals(Optional.of(student(5L, "wuv.hij@school.com", 2001)), studentReadModel.find(5L));
+		assertTrue(studentReadModel.findByEmail("abc.xyz@school.com").isEmpty());
+		assertEquals(Optional.of(student(1L, "renamed@school.com", 1997)),
+				studentReadModel.findByEmail("renamed@school.com"));
+
+		studentReadModel.onChange(StudentChangeEvent.deleted(1L));
+
+		assertTrue(studentReadModel.find(1L).isEmpty());
+		assertTrue(studentReadModel.findByEmail("renamed@school.com").isEmpty());
+		assertEquals(List.of(student(5L, "wuv.hij@school.com", 2001)),
+				studentReadModel.findPageAfter(0L, 10, DobRange.UNBOUNDED));
+	}
+
+	@Test
+	@DisplayName("Applies the students that events carry, unless a later version or a delete is held")
+	void test_onChange_carriedStudents() {
+		when(studentRepository.streamViews()).thenReturn(Stream.of(student(1L, "abc.xyz@school.com", 1997)));
+		studentReadModel.rebuild();
+
+		StudentView renamed = new StudentView(1L, "Renamed", "abc.xyz@school.com", LocalDate.of(1997, 6, 1), 2L);
+		studentReadModel.onChange(StudentChangeEvent.updated(renamed));
+		studentReadModel.onChange(StudentChangeEvent.updated(student(1L, "abc.xyz@school.com", 1997)));
+		assertEquals(Optional.of(renamed), studentReadModel.find(1L));
+
+		studentReadModel.onChange(StudentChangeEvent.created(student(5L, "wuv.hij@school.com", 2001)));
+		studentReadModel.onChange(StudentChangeEvent.deleted(5L));
+		studentReadModel.onChange(StudentChangeEvent.updated(student(5L, "wuv.hij@school.com", 2001)));
+		assertTrue(studentReadModel.find(5L).isEmpty());
+		verify(studentRepository, never()).findViewById(any());
+	}
+
+	@Test
+	@DisplayName("Reloads students changed while the model was being rebuilt")
+	void test_rebuild_concurrentChange() {
+		when(studentRepository.streamViews()).thenAnswer(invocation -> {
+			studentReadModel.onChange(StudentChangeEvent.deleted(1L));
+			return Stream.of(student(1L, "abc.xyz@school.com", 1997), student(2L, "wuv.hij@school.com", 2001));
+		});
+
+		studentReadModel.rebuild();
+
+		assertTrue(studentReadModel.find(1L).isEmpty());
+		assertEquals(Optional.of(student(2L, "wuv.hij@school.com", 2001)), studentReadModel.find(2L));
+	}
+
+	@Test
+	@DisplayName("Does not bring back a deleted student whose reload a rebuild overtook")
+	void test_onChange_reloadOvertakenByRebuild() {
+		when(studentRepository.streamViews()).thenReturn(Stream.of(student(1L, "abc.xyz@school.com", 1997)))
+				.thenReturn(Stream.empty());
+		studentReadModel.rebuild();
+		when(studentRepository.findViewById(1L)).thenAnswer(invocation -> {
+			studentReadModel.onChange(StudentChangeEvent.deleted(1L));
+			studentReadModel.rebuild();
+			return Optional.of(student(1L, "renamed@school.com", 1997));
+		}).thenReturn(Optional.empty());
+
+		studentReadModel.onChange(StudentChangeEvent.updated(1L, null, "renamed@school.com"));
+
+		assertTrue(studentReadModel.find(1L).isEmpty());
+		assertTrue(studentReadModel.findByEmail("renamed@school.com").isEmpty());
+	}
+
+	private static StudentView student(Long id, String email, int year) {
+		return new StudentView(id, "Student " + id, email, LocalDate.of(year, 6, 1), 0L);
+	}
+}
@@ -0,0 +1,316 @@
+package me.subhas.sms.student.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+
+import me.subhas.sms.student.StudentConfig;
+import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
+import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
+
+@SpringJUnitConfig
+@TestPropertySource(properties = "student.cache.missing-ttl=" + StudentServiceCachingTests.MISSING_TTL_MILLIS + "ms")
+class StudentServiceCachingTests {
+
+	static final long MISSING_TTL_MILLIS = 200;
+
+	/**
+	 * The cache's clock, moved forward by the tests.
+	 */
+	private static final AtomicLong NANOS = new AtomicLong();
+
+	@Configuration
+	@Import({ StudentConfig.class, StudentService.class, StudentLoader.class })
+	static class CachingConfig {
+		@Bean
+		static ConversionService conversionService() {
+			return ApplicationConversionService.getSharedInstance();
+		}
+
+		@Bean
+		Ticker ticker() {
+			return NANOS::get;
+		}
+
+		@Bean
+		StudentShards studentShards() {
+			return StudentShards.unsharded();
+		}
+
+		@Bean
+		CacheManager cacheManager(CacheManagerCustomizer<CaffeineCacheManager> studentCacheCustomizer) {
+			CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+			studentCacheCustomizer.customize(cacheManager);
+			return cacheManager;
+		}
+	}
+
+	@MockBean
+	private StudentRepository studentRepository;
+
+	@MockBean
+	private StudentNameIndex studentNameIndex;
+
+	@MockBean
+	private StudentReadModel studentReadModel;
+
+	@Autowired
+	private StudentService studentService;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	@BeforeEach
+	void clearCache() {
+		cacheManager.getCache(StudentService.STUDENT_CACHE).clear();
+		reset(studentRepository);
+	}
+
+	@Test
+	@DisplayName("Serves repeated reads of a student from the cache")
+	void test_findStudent_cached() {
+		StudentView student = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		when(studentRepository.findViewById(1L)).thenReturn(Optional.of(student));
+
+		assertEquals(Optional.of(student), studentService.findStudent(1L));
+		assertEquals(Optional.of(student), studentService.findStudent(1L));
+
+		verify(studentRepository, times(1)).findViewById(1L);
+	}
+
+	@Test
+	@DisplayName("Caches a missing student until the short missing-id TTL passes")
+	void test_findStudent_missingCachedBriefly() {
+		when(studentRepository.findViewById(1L)).thenReturn(Optional.empty());
+
+		assertTrue(studentService.findStudent(1L).isEmpty());
+		assertTrue(studentService.findStudent(1L).isEmpty());
+		verify(studentRepository, times(1)).findViewById(1L);
+
+		NANOS.addAndGet(TimeUnit.MILLISECONDS.toNanos(MISSING_TTL_MILLIS + 1));
+		assertTrue(studentService.findStudent(1L).isEmpty());
+		verify(studentRepository, times(2)).findViewById(1L);
+	}
+
+	@Test
+	@DisplayName("Forgets a missing student once it has been created")
+	void test_createStudent_evictsMissing() {
+		StudentView student = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		when(studentRepository.findViewById(1L)).thenReturn(Optional.empty()).thenReturn(Optional.of(student));
+
+		assertTrue(studentService.findStudent(1L).isEmpty());
+		studentService.createStudent(new Student(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1)));
+
+		assertEquals(Optional.of(student), studentService.findStudent(1L));
+	}
+
+	@Test
+	@DisplayName("Shares one database lookup among concurrent reads of the same student")
+	void test_findStudent_singleFlight() throws Exception {
+		StudentView student = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(studentRepository.findViewById(1L)).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await();
+			return Optional.of(student);
+		});
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Optional<StudentView>>> reads = new ArrayList<>();
+			reads.add(executor.submit(() -> studentService.findStudent(1L)));
+			loading.await();
+			List<Thread> readers = new CopyOnWriteArrayList<>();
+			for (int i = 0; i < 7; i++) {
+				reads.add(executor.submit(() -> {
+					readers.add(Thread.currentThread());
+					return studentService.findStudent(1L);
+				}));
+			}
+			awaitParked(readers, 7);
+			release.countDown();
+			for (Future<Optional<StudentView>> read : reads) {
+				assertEquals(Optional.of(student), read.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		verify(studentRepository, times(1)).findViewById(1L);
+	}
+
+	@Test
+	@DisplayName("Looks other students up while a load is in progress, even ones in the same hash bin of the cache")
+	void test_findStudent_loadBlocksNoOtherIds() throws Exception {
+		// Both ids fall into the same bin of any cache table of up to 1024 bins
+		Long otherId = 1L + 1024;
+		StudentView other = new StudentView(otherId, "XYZ GLZ", "xyz.glz@school.com", LocalDate.of(1996, 10, 1), 0L);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(studentRepository.findViewById(1L)).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await();
+			return Optional.empty();
+		});
+		when(studentRepository.findViewById(otherId)).thenReturn(Optional.of(other));
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Optional<StudentView>> read = executor.submit(() -> studentService.findStudent(1L));
+			loading.await();
+			assertEquals(Optional.of(other),
+					executor.submit(() -> studentService.findStudent(otherId)).get(5, TimeUnit.SECONDS));
+			release.countDown();
+			assertTrue(read.get(5, TimeUnit.SECONDS).isEmpty());
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	@DisplayName("Reloads a student after it has been updated")
+	void test_updateStudent_evicts() {
+		StudentView student = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		when(studentRepository.findViewById(1L)).thenReturn(Optional.of(student));
+
+		when(studentRepository.updateStudent(1L, "XYZ GLZ", null, null)).thenReturn(1);
+
+		studentService.findStudent(1L);
+		studentService.updateStudent(1L, "XYZ GLZ", null);
+		studentService.findStudent(1L);
+
+		verify(studentRepository, times(2)).findViewById(1L);
+	}
+
+	@Test
+	@DisplayName("Drops a student loaded before an update committed, when the update evicts it during the load")
+	void test_updateStudent_evictsConcurrentLoad() throws Exception {
+		StudentView before = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		StudentView after = new StudentView(1L, "XYZ GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 1L);
+		CountDownLatch loading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(studentRepository.findViewById(1L)).thenAnswer(invocation -> {
+			loading.countDown();
+			release.await();
+			return Optional.of(before);
+		}).thenReturn(Optional.of(after));
+		when(studentRepository.updateStudent(1L, "XYZ GLZ", null, null)).thenReturn(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(1);
+		try {
+			Future<Optional<StudentView>> read = executor.submit(() -> studentService.findStudent(1L));
+			loading.await();
+			studentService.updateStudent(1L, "XYZ GLZ", null);
+			release.countDown();
+			assertEquals(Optional.of(before), read.get(5, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(Optional.of(after), studentService.findStudent(1L));
+	}
+
+	@Test
+	@DisplayName("Forgets a student after it has been deleted")
+	void test_deleteStudent_evicts() {
+		StudentView student = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		when(studentRepository.findViewById(1L)).thenReturn(Optional.of(student));
+		when(studentRepository.deleteStudentById(1L)).thenReturn(1);
+
+		studentService.findStudent(1L);
+		studentService.deleteStudent(1L);
+		studentService.findStudent(1L);
+
+		verify(studentRepository, times(2)).findViewById(1L);
+	}
+
+	@Test
+	@DisplayName("Forgets only the students named by a batch delete")
+	void test_deleteStudents_evictsNamedIds() {
+		StudentView first = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		StudentView second = new StudentView(2L, "XYZ GLZ", "xyz.glz@school.com", LocalDate.of(1996, 10, 1), 0L);
+		when(studentRepository.findViewById(1L)).thenReturn(Optional.of(first));
+		when(studentRepository.findViewById(2L)).thenReturn(Optional.of(second));
+		when(studentRepository.findExistingIds(Set.of(1L))).thenReturn(List.of(1L));
+
+		studentService.findStudent(1L);
+		studentService.findStudent(2L);
+		studentService.deleteStudents(List.of(1L));
+		studentService.findStudent(1L);
+		studentService.findStudent(2L);
+
+		verify(studentRepository, times(2)).findViewById(1L);
+		verify(studentRepository, times(1)).findViewById(2L);
+	}
+
+	@Test
+	@DisplayName("Forgets only the missing entries of the students a batch created")
+	void test_createStudents_evictsCreatedIds() {
+		StudentView other = new StudentView(2L, "XYZ GLZ", "xyz.glz@school.com", LocalDate.of(1996, 10, 1), 0L);
+		when(studentRepository.findViewById(1L)).thenReturn(Optional.empty());
+		when(studentRepository.findViewById(2L)).thenReturn(Optional.of(other));
+
+		studentService.findStudent(1L);
+		studentService.findStudent(2L);
+		studentService.createStudents(
+				List.of(new Student(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1))));
+		studentService.findStudent(1L);
+		studentService.findStudent(2L);
+
+		verify(studentRepository, times(2)).findViewById(1L);
+		verify(studentRepository, times(1)).findViewById(2L);
+	}
+
+	/**
+	 * Waits until {@code count} threads have registered and all of them are
+	 * blocked or waiting, that is, queued behind the load in progress.
+	 */
+	private static void awaitParked(List<Thread> threads, int count) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (threads.size() < count || !threads.stream().allMatch(thread -> thread.getState() == Thread.State.BLOCKED
+				|| thread.getState() == Thread.State.WAITING)) {
+			if (System.nanoTime() > deadline) {
+				throw new AssertionError("Threads did not wait for the load in progress");
+			}
+			Thread.sleep(1);
+		}
+	}
+}
@@ -1,19 +1,32 @@
 package me.subhas.sms.student.business;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Stream;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,13 +35,24 @@ import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
-
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import me.subhas.sms.student.business.exception.BatchTooLargeException;
 import me.subhas.sms.student.business.exception.EmailAlreadyTakenException;
 import me.subhas.sms.student.business.exception.StudentNotFoundException;
+import me.subhas.sms.student.business.exception.StudentVersionMismatchException;
 import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
 import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
 
 @ExtendWith(MockitoExtension.class)
 class StudentServiceTests {
@@ -36,6 +60,24 @@ class StudentServiceTests {
 	@Mock
 	private StudentRepository studentRepository;
 
+	@Spy
+	private StudentShards studentShards = StudentShards.unsharded();
+
+	@Mock
+	private StudentLoader studentLoader;
+
+	@Mock
+	private StudentNameIndex studentNameIndex;
+
+	@Mock
+	private StudentReadModel studentReadModel;
+
+	@Mock
+	private CacheManager cacheManager;
+
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+
 	@Autowired
 	@InjectMocks
 	private StudentService studentService;
@@ -43,128 +85,471 @@ class StudentServiceTests {
 	@Test
     @DisplayName("Return empty list when no students are present")
     void test_listStudents_emptyArray() {
-	when(studentRepository.findAll()).thenReturn(List.of());
+	when(studentRepository.findPageAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
 
-	List<Student> resultList = studentService.listStudents();
-	assertEquals(0, resultList.size());
+	StudentPage page = studentService.listStudents(null, 10);
+	assertEquals(0, page.students().size());
+	assertNull(page.next());
 
-	verify(studentRepository).findAll();
+	verify(studentRepository).findPageAfter(0L, PageRequest.of(0, 10));
     }
 
 	@Test
 	@DisplayName("Return a list of students")
 	void test_listStudents() {
-		List<Student> students = List.of(new Student(1L, "XYZ BYZ", "xyz.byz@school.com", LocalDate.of(1999, 10, 1)),
-				new Student(2L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1999, 11, 1)),
-				new Student(1L, "HIJ BYZ", "HIJ.byz@school.com", LocalDate.of(1998, 12, 1)));
-		when(studentRepository.findAll()).thenReturn(students);
+		List<StudentView> students = List.of(
+				new StudentView(1L, "XYZ BYZ", "xyz.byz@school.com", LocalDate.of(1999, 10, 1), 0L),
+				new StudentView(2L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1999, 11, 1), 0L),
+				new StudentView(1L, "HIJ BYZ", "HIJ.byz@school.com", LocalDate.of(1998, 12, 1), 0L));
+		when(studentRepository.findPageAfter(anyLong(), any(Pageable.class))).thenReturn(students);
 
-		List<Student> resultList = studentService.listStudents();
+		List<StudentView> resultList = studentService.listStudents(null, 10).students();
 		assertEquals(students.size(), resultList.size());
 
-		for (Student student : resultList) {
-			int expectedAge = Period.between(student.getDob(), LocalDate.now()).getYears();
-			assertEquals(expectedAge, student.getAge());
+		for (StudentView student : resultList) {
+			int expectedAge = Period.between(student.dob(), LocalDate.now()).getYears();
+			assertEquals(expectedAge, student.age());
 		}
 
-		verify(studentRepository).findAll();
+		verify(studentRepository).findPageAfter(0L, PageRequest.of(0, 10));
+	}
+
+	@Test
+	@DisplayName("Return the id of the last student as next cursor when the page is full")
+	void test_listStudents_nextCursor() {
+		List<StudentView> students = List.of(
+				new StudentView(4L, "XYZ BYZ", "xyz.byz@school.com", LocalDate.of(1999, 10, 1), 0L),
+				new StudentView(7L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1999, 11, 1), 0L));
+		when(studentRepository.findPageAfter(anyLong(), any(Pageable.class))).thenReturn(students);
+
+		StudentPage page = studentService.listStudents(3L, 2);
+		assertEquals(7L, page.next());
+
+		verify(studentRepository).findPageAfter(3L, PageRequest.of(0, 2));
+	}
+
+	@Test
+	@DisplayName("Clamp the requested page size to the maximum page size")
+	void test_listStudents_clampPageSize() {
+		when(studentRepository.findPageAfter(anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+		studentService.listStudents(null, 1_000_000);
+
+		verify(studentRepository).findPageAfter(0L, PageRequest.of(0, StudentService.MAX_PAGE_SIZE));
+	}
+
+	@Test
+	@DisplayName("Query by date of birth when the listing is filtered")
+	void test_listStudents_dobRange() {
+		DobRange dobRange = DobRange.of(LocalDate.of(2000, 1, 1), LocalDate.of(2003, 12, 31));
+		when(studentRepository.findPageAfterBornBetween(anyLong(), any(), any(), any(Pageable.class)))
+				.thenReturn(List.of());
+
+		studentService.listStudents(null, 10, dobRange);
+
+		verify(studentRepository).findPageAfterBornBetween(0L, dobRange.from(), dobRange.to(), PageRequest.of(0, 10));
+		verify(studentRepository, never()).findPageAfter(anyLong(), any(Pageable.class));
+	}
+
+	@Test
+	@DisplayName("Selects only the columns of the requested fields")
+	void test_listStudents_sparseFields() {
+		DobRange dobRange = DobRange.of(LocalDate.of(2000, 1, 1), LocalDate.of(2003, 12, 31));
+		List<StudentView> students = List.of(new StudentView(4L, "XYZ BYZ", null, null, 0L),
+				new StudentView(7L, "ABC GLZ", null, null, 0L));
+		when(studentRepository.findSparsePageAfter(3L, dobRange.from(), dobRange.to(), Set.of("name", "dob"), 2))
+				.thenReturn(students);
+
+		StudentPage page = studentService.listStudents(3L, 2, dobRange,
+				EnumSet.of(StudentField.NAME, StudentField.AGE));
+		assertSame(students, page.students());
+		assertEquals(7L, page.next());
+
+		verify(studentRepository, never()).findPageAfterBornBetween(anyLong(), any(), any(), any(Pageable.class));
+	}
+
+	@Test
+	@DisplayName("Stream every student to the consumer")
+	void test_streamStudents() {
+		List<Student> students = List.of(new Student(1L, "XYZ BYZ", "xyz.byz@school.com", LocalDate.of(1999, 10, 1)),
+				new Student(2L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1999, 11, 1)));
+		when(studentRepository.streamAll()).thenReturn(students.stream());
+
+		List<Student> streamed = new ArrayList<>();
+		studentService.streamStudents(streamed::add);
+		assertEquals(students, streamed);
+
+		verify(studentRepository).streamAll();
 	}
 
 	@Test
 	@DisplayName("Successfully return a student object")
 	void test_getStudent_success() {
-		Student student = new Student(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1));
-		when(studentRepository.findById(anyLong())).thenReturn(Optional.of(student));
+		StudentView student = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		when(studentLoader.load(anyLong())).thenReturn(Optional.of(student));
 
-		Student foundStudent = studentService.getStudent(1L);
+		StudentView foundStudent = studentService.findStudent(1L).get();
 
-		assertEquals(student.getId(), foundStudent.getId());
-		int expectedAge = Period.between(student.getDob(), LocalDate.now()).getYears();
-		assertEquals(expectedAge, foundStudent.getAge());
+		assertEquals(student.id(), foundStudent.id());
+		int expectedAge = Period.between(student.dob(), LocalDate.now()).getYears();
+		assertEquals(expectedAge, foundStudent.age());
 
-		verify(studentRepository).findById(1L);
+		verify(studentLoader).load(1L);
 	}
 
 	@Test
-    @DisplayName("Return Not Found,  when student with requested id is not present")
+    @DisplayName("Return empty,  when student with requested id is not present")
     void test_getStudent_failure() {
-	when(studentRepository.findById(anyLong())).thenReturn(Optional.empty());
+	when(studentLoader.load(anyLong())).thenReturn(Optional.empty());
 
-	assertThrows(StudentNotFoundException.class, () -> studentService.getStudent(1L));
+	assertTrue(studentService.findStudent(1L).isEmpty());
 
-	verify(studentRepository).findById(1L);
+	verify(studentLoader).load(1L);
     }
 
+	@Test
+	@DisplayName("Fetches several students with one query, in the requested order")
+	void test_findStudents() {
+		StudentView first = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		StudentView third = new StudentView(3L, "WUV HIJ", "wuv.hij@school.com", LocalDate.of(1996, 2, 1), 0L);
+		when(studentRepository.findViewsByIds(anyCollection())).thenReturn(List.of(third, first));
+
+		assertEquals(List.of(third, first), studentService.findStudents(List.of(3L, 2L, 1L, 3L)));
+
+		verify(studentRepository).findViewsByIds(Set.of(1L, 2L, 3L));
+		verifyNoMoreInteractions(studentRepository);
+	}
+
+	@Test
+	@DisplayName("Refuses to fetch more students by id than fit in a page")
+	void test_findStudents_tooMany() {
+		List<Long> ids = new ArrayList<>();
+		for (long id = 1; id <= StudentService.MAX_PAGE_SIZE + 1; id++) {
+			ids.add(id);
+		}
+
+		assertThrows(BatchTooLargeException.class, () -> studentService.findStudents(ids));
+		verifyNoInteractions(studentRepository);
+	}
+
+	@Test
+	@DisplayName("Finds a student by email, ignoring case")
+	void test_findStudentByEmail() {
+		StudentView student = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		when(studentRepository.findViewByNormalizedEmail("abc.glz@school.com")).thenReturn(Optional.of(student));
+
+		assertEquals(Optional.of(student), studentService.findStudentByEmail(" ABC.glz@school.com"));
+		assertTrue(studentService.findStudentByEmail("nobody@school.com").isEmpty());
+	}
+
+	@Test
+	@DisplayName("Answers reads from the read model once it is ready")
+	void test_reads_fromReadModel() {
+		StudentView first = new StudentView(1L, "ABC GLZ", "abc.glz@school.com", LocalDate.of(1995, 10, 1), 0L);
+		StudentView second = new StudentView(2L, "WUV HIJ", "wuv.hij@school.com", LocalDate.of(1996, 2, 1), 0L);
+		when(studentReadModel.isReady()).thenReturn(true);
+		when(studentReadModel.findPageAfter(0L, 2, DobRange.UNBOUNDED)).thenReturn(List.of(first, second));
+		when(studentReadModel.find(anyLong())).thenReturn(Optional.empty());
+		when(studentReadModel.find(2L)).thenReturn(Optional.of(second));
+		when(studentReadModel.findByEmail("abc.glz@school.com")).thenReturn(Optional.of(first));
+
+		assertEquals(new StudentPage(List.of(first, second), 2L), studentService.listStudents(null, 2));
+		assertEquals(Optional.of(second), studentService.findStudent(2L));
+		assertEquals(List.of(second), studentService.findStudents(List.of(3L, 2L)));
+		assertEquals(Optional.of(first), studentService.findStudentByEmail("abc.glz@school.com"));
+
+		verifyNoInteractions(studentRepository, studentLoader);
+	}
+
 	@Test
 	@DisplayName("Creates a student when all the details are correct")
 	void test_createStudent_success() {
 		Student newStudent = new Student(1L, "Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 7, 10));
-		when(studentRepository.save(any(Student.class))).thenReturn(newStudent);
+		when(studentRepository.saveAndFlush(any(Student.class))).thenReturn(newStudent);
 		studentService.createStudent(newStudent);
 
-		verify(studentRepository).save(newStudent);
+		verify(studentRepository).saveAndFlush(newStudent);
+		verify(eventPublisher).publishEvent(StudentChangeEvent.created(
+				new StudentView(1L, "Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 7, 10), null)));
 	}
 
 	@Test
 	@DisplayName("Throws exception when creating a Student, if email is already taken")
 	void test_createStudent_failure() {
 		Student newStudent = new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 7, 10));
-		Student existingStudent = new Student(1L, "Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 7, 10));
-		when(studentRepository.findByStudentEmail(anyString())).thenReturn(Optional.of(existingStudent));
+		when(studentRepository.saveAndFlush(any(Student.class))).thenThrow(emailConstraintViolation());
 		assertThrows(EmailAlreadyTakenException.class, () -> studentService.createStudent(newStudent));
 
-		verify(studentRepository).findByStudentEmail("abc.xyz@school.com");
+		verify(studentRepository).saveAndFlush(newStudent);
+		verifyNoInteractions(eventPublisher);
 	}
 
 	@Test
-    @DisplayName("Successfully delete an existing Student")
-    void test_deleteStudent_success() {
-	when(studentRepository.existsById(anyLong())).thenReturn(true);
+	@DisplayName("Propagates integrity violations other than a taken email when creating a Student")
+	void test_createStudent_otherViolation() {
+		Student newStudent = new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 7, 10));
+		DataIntegrityViolationException violation = new DataIntegrityViolationException("not-null");
+		when(studentRepository.saveAndFlush(any(Student.class))).thenThrow(violation);
 
-	studentService.deleteStudent(123L);
+		assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+				() -> studentService.createStudent(newStudent)));
+	}
 
-	verify(studentRepository).existsById(123L);
-	verify(studentRepository).deleteById(123L);
-    }
+	private static DataIntegrityViolationException emailConstraintViolation() {
+		return new DataIntegrityViolationException("duplicate key", new ConstraintViolationException(
+				"duplicate key", new SQLException("duplicate key", "23505"), Student.EMAIL_CONSTRAINT));
+	}
+
+	@Test
+	@DisplayName("Creates a batch of students, rejecting taken and repeated emails")
+	void test_createStudents() {
+		Student fresh = new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 7, 10));
+		Student taken = new Student("Hij Klm", "Hij.Klm@school.com", LocalDate.of(1998, 7, 10));
+		Student repeated = new Student("Abc Xyz", "ABC.xyz@school.com ", LocalDate.of(1999, 7, 10));
+		when(studentRepository.findTakenEmails(anyCollection())).thenReturn(List.of("hij.klm@school.com"));
+
+		List<BatchItemResult> results = studentService.createStudents(List.of(fresh, taken, repeated));
+
+		assertEquals(List.of(BatchItemResult.Status.CREATED, BatchItemResult.Status.REJECTED,
+				BatchItemResult.Status.REJECTED), results.stream().map(BatchItemResult::status).toList());
+		assertEquals(List.of(0, 1, 2), results.stream().map(BatchItemResult::index).toList());
+		verify(studentRepository).findTakenEmails(Set.of("abc.xyz@school.com", "hij.klm@school.com"));
+		verify(studentRepository).saveAll(List.of(fresh));
+	}
 
 	@Test
-    @DisplayName("Throws exception when deleting Student, if student with specified id is not present")
-    void test_deleteStudent_failure() {
-	when(studentRepository.existsById(anyLong())).thenReturn(false);
+	@DisplayName("Writes a batch row by row when an email is claimed concurrently, rejecting only that row")
+	void test_createStudents_concurrentClaim() {
+		Student claimed = new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 7, 10));
+		Student fresh = new Student("Hij Klm", "hij.klm@school.com", LocalDate.of(1998, 7, 10));
+		doThrow(emailConstraintViolation()).doThrow(emailConstraintViolation()).doReturn(List.of())
+				.when(studentRepository).saveAll(any());
+
+		List<BatchItemResult> results = studentService.createStudents(List.of(claimed, fresh));
+
+		assertEquals(List.of(BatchItemResult.Status.REJECTED, BatchItemResult.Status.CREATED),
+				results.stream().map(BatchItemResult::status).toList());
+		assertEquals("Email is already taken", results.get(0).message());
+		assertEquals(List.of(0, 1), results.stream().map(BatchItemResult::index).toList());
+	}
+
+	@Test
+	@DisplayName("Throws exception when a batch exceeds the maximum batch size")
+	void test_createStudents_tooLarge() {
+		List<Student> students = Collections.nCopies(StudentService.MAX_BATCH_SIZE + 1, new Student());
 
-	assertThrows(StudentNotFoundException.class, () -> studentService.deleteStudent(123L));
+		assertThrows(BatchTooLargeException.class, () -> studentService.createStudents(students));
 
-	verify(studentRepository).existsById(123L);
-    }
+		verifyNoInteractions(studentRepository);
+	}
+
+	@Test
+	@DisplayName("Successfully delete an existing Student with a single statement")
+	void test_deleteStudent_success() {
+		when(studentRepository.deleteStudentById(anyLong())).thenReturn(1);
+
+		studentService.deleteStudent(123L);
+
+		verify(studentRepository).deleteStudentById(123L);
+		verify(studentRepository, never()).existsById(anyLong());
+		verify(eventPublisher).publishEvent(StudentChangeEvent.deleted(123L));
+	}
+
+	@Test
+	@DisplayName("Throws exception when deleting Student, if student with specified id is not present")
+	void test_deleteStudent_failure() {
+		when(studentRepository.deleteStudentById(anyLong())).thenReturn(0);
+
+		assertThrows(StudentNotFoundException.class, () -> studentService.deleteStudent(123L));
+
+		verify(studentRepository).deleteStudentById(123L);
+		verifyNoInteractions(eventPublisher);
+	}
+
+	@Test
+	@DisplayName("Deletes the existing students of a batch and rejects unknown ids")
+	void test_deleteStudents() {
+		when(studentRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 3L));
+
+		List<BatchItemResult> results = studentService.deleteStudents(List.of(1L, 2L, 3L));
+
+		assertEquals(List.of(BatchItemResult.deleted(0, 1L),
+				BatchItemResult.rejected(1, 2L, "Student with id 2 does not exist"), BatchItemResult.deleted(2, 3L)),
+				results);
+		verify(studentRepository).deleteStudentsByIds(Set.of(1L, 3L));
+		verify(eventPublisher).publishEvent(StudentChangeEvent.deleted(1L));
+		verify(eventPublisher).publishEvent(StudentChangeEvent.deleted(3L));
+		verifyNoMoreInteractions(eventPublisher);
+	}
+
+	@Test
+	@DisplayName("Deletes a repeated id once and rejects its repeats")
+	void test_deleteStudents_repeatedId() {
+		when(studentRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+
+		List<BatchItemResult> results = studentService.deleteStudents(List.of(1L, 1L));
+
+		assertEquals(List.of(BatchItemResult.deleted(0, 1L),
+				BatchItemResult.rejected(1, 1L, "Student with id 1 does not exist")), results);
+		verify(eventPublisher).publishEvent(StudentChangeEvent.deleted(1L));
+		verifyNoMoreInteractions(eventPublisher);
+	}
 
 	@ParameterizedTest
 	@MethodSource("nameAndEmailProvider")
-	@DisplayName("Updates existing student's name & email successfully")
-	void test_updateStudent_success(String newName, String newEmail) {
-		Student student = new Student(23L, "Abc", "abc@school.com", LocalDate.of(1997, 7, 10));
-		when(studentRepository.findById(23L)).thenReturn(Optional.of(student));
+	@DisplayName("Updates existing student's name & email successfully with a single statement")
+	void test_updateStudent_success(String newName, String newEmail, String normalizedEmail) {
+		when(studentRepository.updateStudent(anyLong(), any(), any(), any())).thenReturn(1);
 
 		studentService.updateStudent(23L, newName, newEmail);
 
-		verify(studentRepository).findById(23L);
+		verify(studentRepository).updateStudent(23L, newName, newEmail, normalizedEmail);
+		verify(studentRepository, never()).findById(anyLong());
+		verify(eventPublisher).publishEvent(StudentChangeEvent.updated(23L, newName, newEmail));
 	}
 
 	static Stream<Arguments> nameAndEmailProvider() {
 		return Stream.of(
-				Arguments.arguments("Abc Xyz", "abc.xyz@school.com"),
-				Arguments.arguments(null, null),
-				Arguments.arguments("", ""),
-				Arguments.arguments("Abc", "abc@school.com"));
+				Arguments.arguments("Abc Xyz", "Abc.Xyz@school.com", "abc.xyz@school.com"),
+				Arguments.arguments("Abc Xyz", null, null),
+				Arguments.arguments(null, "abc@school.com", "abc@school.com"));
+	}
+
+	@ParameterizedTest
+	@MethodSource("blankNameAndEmailProvider")
+	@DisplayName("Only checks the student exists when there is nothing to update")
+	void test_updateStudent_nothingToUpdate(String newName, String newEmail) {
+		when(studentRepository.existsById(23L)).thenReturn(true);
+
+		studentService.updateStudent(23L, newName, newEmail);
+
+		verify(studentRepository, never()).updateStudent(anyLong(), any(), any(), any());
+		verifyNoInteractions(eventPublisher);
+	}
+
+	static Stream<Arguments> blankNameAndEmailProvider() {
+		return Stream.of(Arguments.arguments(null, null), Arguments.arguments("", " "));
 	}
 
 	@Test
-    @DisplayName("Throws exception when updating Student, if student with specified id is not present")
-    void test_updateStudent_failure() {
-	when(studentRepository.findById(23L)).thenReturn(Optional.empty());
+	@DisplayName("Throws exception when updating Student, if the new email is already taken")
+	void test_updateStudent_emailTaken() {
+		doThrow(emailConstraintViolation()).when(studentRepository).updateStudent(23L, null, "taken@school.com",
+				"taken@school.com");
 
-	assertThrows(StudentNotFoundException.class,
-		() -> studentService.updateStudent(23L, "Subhas", "subhas.bhat@school.com"));
-	verify(studentRepository).findById(23L);
-    }
+		assertThrows(EmailAlreadyTakenException.class,
+				() -> studentService.updateStudent(23L, null, "taken@school.com"));
+	}
+
+	@Test
+	@DisplayName("Throws exception when updating Student, if it is no longer at the expected version")
+	void test_updateStudent_versionMismatch() {
+		when(studentRepository.updateStudentAtVersion(23L, "Xyz", null, null, 2L)).thenReturn(0);
+		when(studentRepository.existsById(23L)).thenReturn(true);
+
+		assertThrows(StudentVersionMismatchException.class, () -> studentService.updateStudent(23L, "Xyz", null, 2L));
+
+		when(studentRepository.updateStudentAtVersion(23L, "Xyz", null, null, 3L)).thenReturn(1);
+		studentService.updateStudent(23L, "Xyz", null, 3L);
+		verify(eventPublisher).publishEvent(StudentChangeEvent.updated(23L, "Xyz", null));
+	}
+
+	@Test
+	@DisplayName("Updates the student at its current version, when that is one of the expected versions")
+	void test_updateStudent_severalExpectedVersions() {
+		when(studentRepository.findViewById(23L))
+				.thenReturn(Optional.of(new StudentView(23L, "Xyz", "xyz@school.com", LocalDate.of(1997, 7, 10), 4L)));
+		when(studentRepository.updateStudentAtVersion(23L, "Abc", null, null, 4L)).thenReturn(1);
+
+		studentService.updateStudentAtAnyVersion(23L, "Abc", null, List.of(3L, 4L));
+
+		verify(eventPublisher).publishEvent(StudentChangeEvent.updated(23L, "Abc", null));
+		when(studentRepository.updateStudentAtVersion(23L, "Abc", null, null, 1L)).thenReturn(0);
+		when(studentRepository.existsById(23L)).thenReturn(true);
+		assertThrows(StudentVersionMismatchException.class,
+				() -> studentService.updateStudentAtAnyVersion(23L, "Abc", null, List.of(1L, 2L)));
+	}
+
+	@Test
+	@DisplayName("Checks the expected version, even when there is nothing to update")
+	void test_updateStudent_nothingToUpdate_versionMismatch() {
+		when(studentRepository.findViewById(23L))
+				.thenReturn(Optional.of(new StudentView(23L, "Xyz", "xyz@school.com", LocalDate.of(1997, 7, 10), 3L)));
+
+		assertThrows(StudentVersionMismatchException.class, () -> studentService.updateStudent(23L, null, " ", 2L));
+
+		studentService.updateStudent(23L, null, null, 3L);
+		verify(studentRepository, never()).updateStudentAtVersion(anyLong(), any(), any(), any(), anyLong());
+		verifyNoInteractions(eventPublisher);
+	}
+
+	@Test
+	@DisplayName("Throws exception when updating Student, if student with specified id is not present")
+	void test_updateStudent_failure() {
+		when(studentRepository.updateStudent(anyLong(), any(), any(), any())).thenReturn(0);
+
+		assertThrows(StudentNotFoundException.class,
+				() -> studentService.updateStudent(23L, "Subhas", "subhas.bhat@school.com"));
+		verify(studentRepository, never()).existsById(anyLong());
+	}
+
+	@Test
+	@DisplayName("Applies a batch of partial updates and rejects unknown ids and taken emails")
+	void test_updateStudents() {
+		Student first = new Student(1L, "Abc", "abc@school.com", LocalDate.of(1997, 7, 10));
+		Student second = new Student(2L, "Xyz", "xyz@school.com", LocalDate.of(1998, 7, 10));
+		when(studentRepository.findAllById(anyCollection())).thenReturn(List.of(first, second));
+		when(studentRepository.findTakenEmails(anyCollection())).thenReturn(List.of("taken@school.com"));
+
+		List<BatchItemResult> results = studentService.updateStudents(List.of(new StudentPatch(1L, "Abc Def", null),
+				new StudentPatch(2L, "Xyz Def", "Taken@school.com"), new StudentPatch(9L, "Nobody", null)));
+
+		assertEquals(List.of(BatchItemResult.updated(0, 1L),
+				BatchItemResult.rejected(1, 2L, "Email is already taken"),
+				BatchItemResult.rejected(2, 9L, "Student with id 9 does not exist")), results);
+		assertEquals("Abc Def", first.getName());
+		assertEquals("Xyz", second.getName());
+		verify(studentRepository).findTakenEmails(Set.of("taken@school.com"));
+		verify(studentRepository).flush();
+	}
+
+	@Test
+	@DisplayName("Throws exception when a batch of updates is larger than the maximum batch size")
+	void test_updateStudents_tooLarge() {
+		List<StudentPatch> patches = Collections.nCopies(StudentService.MAX_BATCH_SIZE + 1,
+				new StudentPatch(1L, "Abc", null));
+
+		assertThrows(BatchTooLargeException.class, () -> studentService.updateStudents(patches));
+
+		verifyNoInteractions(studentRepository);
+	}
+
+	@Test
+	@DisplayName("Searches students with escaped, lower-cased patterns and a clamped limit")
+	void test_searchStudents() {
+		List<StudentView> students = List
+				.of(new StudentView(1L, "Abc Xyz", "abc.xyz@school.com", LocalDate.of(1999, 10, 1), 0L));
+		when(studentRepository.search("%ab\\_c%", "ab\\_c%", PageRequest.of(0, StudentService.MAX_SEARCH_RESULTS)))
+				.thenReturn(students);
+
+		assertSame(students, studentService.searchStudents(" AB_c ", 5000));
+	}
+
+	@Test
+	@DisplayName("Returns no students for a blank search without querying the repository")
+	void test_searchStudents_blank() {
+		assertEquals(List.of(), studentService.searchStudents("  ", 10));
+
+		verifyNoInteractions(studentRepository);
+	}
+
+	@Test
+	@DisplayName("Suggests students from the name index")
+	void test_suggestStudents() {
+		List<StudentSuggestion> suggestions = List.of(new StudentSuggestion(1L, "Abc Xyz"));
+		when(studentNameIndex.suggest("ab", 1)).thenReturn(suggestions);
+
+		assertSame(suggestions, studentService.suggestStudents("ab", 0));
+	}
 
 }
@@ -0,0 +1,267 @@
+package me.subhas.sms.student.business;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import me.subhas.sms.student.business.exception.EmailAlreadyTakenException;
+import me.subhas.sms.student.business.exception.StudentNotFoundException;
+import me.subhas.sms.student.data.ShardRoutingDataSource;
+import me.subhas.sms.student.data.StudentRepository;
+import me.subhas.sms.student.data.StudentShards;
+import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
+
+@SpringBootTest(webEnvironment = WebEnvironment.NONE, properties = {
+		"student.datasource.shards=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+		"spring.datasource.username=sa", "spring.datasource.password=",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect", "spring.jpa.show-sql=false",
+		"student.loader.window=0ms" })
+class StudentShardingTests {
+
+	@Autowired
+	private StudentService studentService;
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private StudentShards studentShards;
+
+	@Autowired
+	private ShardRoutingDataSource dataSource;
+
+	@AfterEach
+	void clearShards() {
+		for (var shard : dataSource.getShards()) {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(shard);
+			jdbcTemplate.update("DELETE FROM student_email");
+			jdbcTemplate.update("DELETE FROM student");
+		}
+	}
+
+	@Test
+	@DisplayName("Places a student on the shard of its email and finds it by id")
+	void test_createAndFind() {
+		List<Student> students = studentPerShard();
+		for (Student student : students) {
+			studentService.createStudent(student);
+		}
+
+		for (int shard = 0; shard < students.size(); shard++) {
+			Long id = students.get(shard).getId();
+			assertEquals(shard, studentShards.shardOf(id));
+			assertEquals(students.get(shard).getEmail(), studentService.findStudent(id).get().email());
+			assertEquals(1, rows(shard, "SELECT count(*) FROM student WHERE id = " + id));
+		}
+		assertEquals(List.of(students.get(1).getId(), students.get(0).getId()),
+				ids(studentService.findStudents(List.of(students.get(1).getId(), students.get(0).getId()))));
+	}
+
+	@Test
+	@DisplayName("Pages through all shards in id order")
+	void test_listStudents() {
+		List<Student> students = studentPerShard();
+		studentService.createStudents(students);
+
+		StudentPage first = studentService.listStudents(null, 1);
+		assertEquals(List.of(students.get(0).getId()), ids(first.students()));
+		StudentPage second = studentService.listStudents(first.next(), 1);
+		assertEquals(List.of(students.get(1).getId()), ids(second.students()));
+		assertTrue(studentService.listStudents(second.next(), 1).students().isEmpty());
+		assertEquals(ids(studentService.listStudents(null, 10).students()),
+				List.of(students.get(0).getId(), students.get(1).getId()));
+	}
+
+	@Test
+	@DisplayName("Keeps emails unique across shards when updating")
+	void test_updateStudent_emailTakenOnOtherShard() {
+		List<Student> students = studentPerShard();
+		studentService.createStudents(students);
+		Long firstId = students.get(0).getId();
+
+		assertThrows(EmailAlreadyTakenException.class,
+				() -> studentService.updateStudent(firstId, null, students.get(1).getEmail()));
+		assertEquals(students.get(0).getEmail(), studentService.findStudent(firstId).get().email());
+
+		studentService.updateStudent(firstId, null, "renamed@school.com");
+		assertEquals("renamed@school.com", studentService.findStudent(firstId).get().email());
+		studentService.createStudent(new Student("Abc Xyz", students.get(0).getEmail(), LocalDate.of(1997, 12, 10)));
+		assertThrows(EmailAlreadyTakenException.class, () -> studentService
+				.createStudent(new Student("Abc Xyz", "Renamed@School.com", LocalDate.of(1997, 12, 10))));
+	}
+
+	@Test
+	@DisplayName("Leaves one index entry when two updates change the same email concurrently")
+	void test_updateStudent_concurrentEmailChanges() throws Exception {
+		Student student = studentPerShard().get(0);
+		studentService.createStudent(student);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int round = 0; round < 10; round++) {
+				List<String> emails = List.of("first" + round + "@school.com", "second" + round + "@school.com");
+				CountDownLatch start = new CountDownLatch(1);
+				List<Future<?>> updates = new ArrayList<>();
+				for (String email : emails) {
+					updates.add(executor.submit(() -> {
+						start.await();
+						studentService.updateStudent(student.getId(), null, email);
+						return null;
+					}));
+				}
+				start.countDown();
+				for (Future<?> update : updates) {
+					update.get(10, TimeUnit.SECONDS);
+				}
+
+				String kept = studentService.findStudent(student.getId()).get().email();
+				assertTrue(emails.contains(kept));
+				int entries = 0;
+				for (int shard = 0; shard < studentShards.count(); shard++) {
+					entries += rows(shard, "SELECT count(*) FROM student_email WHERE student_id = " + student.getId());
+				}
+				assertEquals(1, entries);
+				String freed = emails.get(0).equals(kept) ? emails.get(1) : emails.get(0);
+				studentService.createStudent(new Student("Abc Xyz", freed, LocalDate.of(1997, 12, 10)));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	@DisplayName("Removes a stale index entry for an email that its student no longer has")
+	void test_createStudent_staleEmailEntry() {
+		String email = "orphaned@school.com";
+		new JdbcTemplate(dataSource.getShards().get(studentShards.shardFor(email))).update(
+				"INSERT INTO student_email (normalized_email, student_id, claimed_at) VALUES (?, 42, ?)", email,
+				LocalDateTime.of(2000, 1, 1, 0, 0));
+
+		Student student = new Student("Abc Xyz", email, LocalDate.of(1997, 12, 10));
+		studentService.createStudent(student);
+
+		assertEquals(email, studentService.findStudent(student.getId()).get().email());
+		Student other = studentPerShard().get(0);
+		studentService.createStudent(other);
+		assertThrows(EmailAlreadyTakenException.class, () -> studentService.updateStudent(other.getId(), null, email));
+	}
+
+	@Test
+	@DisplayName("Writes a failed shard part row by row and rejects only the conflicting row")
+	void test_createStudents_partRetriedRowByRow() {
+		List<String> emails = new ArrayList<>();
+		for (int i = 0; emails.size() < 2; i++) {
+			if (studentShards.shardFor("student" + i + "@school.com") == 0) {
+				emails.add("student" + i + "@school.com");
+			}
+		}
+		// A concurrent writer that committed the student but not yet its index entry
+		new JdbcTemplate(dataSource.getShards().get(0)).update(
+				"INSERT INTO student (id, name, email, normalized_email, dob) VALUES (999999, 'Other', ?, ?, NULL)",
+				emails.get(0), emails.get(0));
+
+		List<BatchItemResult> results = studentService
+				.createStudents(List.of(new Student("Abc Xyz", emails.get(0), LocalDate.of(1997, 12, 10)),
+						new Student("Wuv Hij", emails.get(1), LocalDate.of(1998, 8, 15))));
+
+		assertEquals(BatchItemResult.Status.REJECTED, results.get(0).status());
+		assertEquals("Email is already taken", results.get(0).message());
+		assertEquals(BatchItemResult.Status.CREATED, results.get(1).status());
+		assertEquals(emails.get(1), studentService.findStudent(results.get(1).id()).get().email());
+	}
+
+	@Test
+	@DisplayName("Frees the email of a deleted student")
+	void test_deleteStudent() {
+		List<Student> students = studentPerShard();
+		studentService.createStudents(students);
+		Long secondId = students.get(1).getId();
+
+		studentService.deleteStudent(secondId);
+
+		assertTrue(studentService.findStudent(secondId).isEmpty());
+		assertThrows(StudentNotFoundException.class, () -> studentService.deleteStudent(secondId));
+		Student again = new Student("Wuv Hij", students.get(1).getEmail(), LocalDate.of(1998, 8, 15));
+		studentService.createStudent(again);
+		assertNotEquals(secondId, again.getId());
+	}
+
+	@Test
+	@DisplayName("Evicts each student changed by a batch from the cache")
+	void test_batchChanges_evictCachedStudents() {
+		List<Student> students = studentPerShard();
+		studentService.createStudents(students);
+		Long firstId = students.get(0).getId();
+		Long secondId = students.get(1).getId();
+		studentService.findStudent(firstId);
+		studentService.findStudent(secondId);
+
+		studentService.updateStudents(List.of(new StudentPatch(firstId, "Renamed", null)));
+		studentService.deleteStudents(List.of(secondId));
+
+		assertEquals("Renamed", studentService.findStudent(firstId).get().name());
+		assertTrue(studentService.findStudent(secondId).isEmpty());
+	}
+
+	@Test
+	@DisplayName("Builds the read model from all shards and reloads changed students from their shard")
+	void test_readModel() {
+		List<Student> students = studentPerShard();
+		studentService.createStudents(students);
+		StudentReadModel readModel = new StudentReadModel(studentRepository, studentShards, true,
+				Duration.ofMinutes(10));
+		readModel.rebuild();
+		assertEquals(2, readModel.size());
+
+		studentService.updateStudent(students.get(1).getId(), "Renamed", null);
+		readModel.onChange(StudentChangeEvent.updated(students.get(1).getId(), "Renamed", null));
+
+		assertEquals("Renamed", readModel.find(students.get(1).getId()).get().name());
+		assertEquals(1L, readModel.find(students.get(1).getId()).get().version());
+		assertEquals(students.get(0).getId(), readModel.findByEmail(students.get(0).getEmail()).get().id());
+		assertEquals(List.of(students.get(0).getId(), students.get(1).getId()),
+				ids(readModel.findPageAfter(0L, 10, DobRange.UNBOUNDED)));
+	}
+
+	/**
+	 * One new student for each shard, in shard order.
+	 */
+	private List<Student> studentPerShard() {
+		List<Student> students = new ArrayList<>();
+		for (int i = 0; students.size() < studentShards.count(); i++) {
+			String email = "student" + i + "@school.com";
+			if (studentShards.shardFor(email) == students.size()) {
+				students.add(new Student("Student " + i, email, LocalDate.of(1997, 12, 10)));
+			}
+		}
+		return students;
+	}
+
+	private int rows(int shard, String sql) {
+		return new JdbcTemplate(dataSource.getShards().get(shard)).queryForObject(sql, Integer.class);
+	}
+
+	private static List<Long> ids(List<StudentView> students) {
+		return students.stream().map(StudentView::id).toList();
+	}
+}
@@ -0,0 +1,70 @@
+package me.subhas.sms.student.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import me.subhas.sms.student.data.entity.Student;
+import reactor.test.StepVerifier;
+
+class ReactiveStudentRepositoryTests {
+
+	private ReactiveStudentRepository reactiveStudentRepository;
+
+	@BeforeEach
+	void createTable() {
+		ConnectionPool connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+				.builder(ConnectionFactories.get("r2dbc:h2:mem:///reactive_students")).maxSize(2).build());
+		DatabaseClient databaseClient = DatabaseClient.create(connectionPool);
+		databaseClient.sql("CREATE TABLE student (id BIGINT PRIMARY KEY, name VARCHAR(255), email VARCHAR(255), "
+				+ "normalized_email VARCHAR(255), dob DATE)").then().block();
+		insert(databaseClient, new Student(3L, "Abc Xyz", "Abc.Xyz@school.com", LocalDate.of(1997, 12, 10)));
+		insert(databaseClient, new Student(1L, "Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15)));
+		insert(databaseClient, new Student(2L, "Klm Nop", "klm.nop@school.com", LocalDate.of(1999, 1, 20)));
+		reactiveStudentRepository = new ReactiveStudentRepository(connectionPool);
+	}
+
+	@AfterEach
+	void closePool() {
+		reactiveStudentRepository.destroy();
+	}
+
+	private static void insert(DatabaseClient databaseClient, Student student) {
+		databaseClient.sql("INSERT INTO student (id, name, email, normalized_email, dob) VALUES (:id, :name, :email, "
+				+ ":normalizedEmail, :dob)").bind("id", student.getId()).bind("name", student.getName())
+				.bind("email", student.getEmail()).bind("normalizedEmail", Student.normalizeEmail(student.getEmail()))
+				.bind("dob", student.getDob()).then().block();
+	}
+
+	@Test
+	@DisplayName("Emits students in id order as they are requested")
+	void test_findAll() {
+		StepVerifier.create(reactiveStudentRepository.findAll().map(Student::getId), 1).expectNext(1L)
+				.thenRequest(2).expectNext(2L, 3L).verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Finds a student by id")
+	void test_findById() {
+		StepVerifier.create(reactiveStudentRepository.findById(2L))
+				.assertNext(student -> assertEquals("klm.nop@school.com", student.getEmail())).verifyComplete();
+		StepVerifier.create(reactiveStudentRepository.findById(9L)).verifyComplete();
+	}
+
+	@Test
+	@DisplayName("Finds a student by email regardless of case")
+	void test_findByEmail() {
+		StepVerifier.create(reactiveStudentRepository.findByEmail("ABC.xyz@school.com"))
+				.assertNext(student -> assertEquals(3L, student.getId())).verifyComplete();
+		StepVerifier.create(reactiveStudentRepository.findByEmail("nobody@school.com")).verifyComplete();
+	}
+}
@@ -0,0 +1,83 @@
+package me.subhas.sms.student.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReplicaRoutingDataSourceTests {
+
+	private EmbeddedDatabase primary;
+
+	private EmbeddedDatabase replica;
+
+	@BeforeEach
+	void startDatabases() {
+		primary = database("primary");
+		replica = database("replica");
+	}
+
+	@AfterEach
+	void stopDatabases() {
+		primary.shutdown();
+		replica.shutdown();
+	}
+
+	@Test
+	@DisplayName("Sends read-only transactions to the replica and everything else to the primary")
+	void test_routesByReadOnlyFlag() {
+		DataSource dataSource = ReplicaRoutingDataSource.lazy(primary, replica, Duration.ZERO);
+
+		assertEquals("replica", whoAnswers(dataSource, true));
+		assertEquals("primary", whoAnswers(dataSource, false));
+		assertEquals("primary", new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+		assertEquals("replica", whoAnswers(dataSource, true));
+	}
+
+	@Test
+	@DisplayName("Keeps reads on the primary within the read-your-writes window after a write")
+	void test_readYourWrites() {
+		DataSource dataSource = ReplicaRoutingDataSource.lazy(primary, replica, Duration.ofMinutes(1));
+
+		assertEquals("replica", whoAnswers(dataSource, true));
+		assertEquals("primary", whoAnswers(dataSource, false));
+		assertEquals("primary", whoAnswers(dataSource, true));
+	}
+
+	@Test
+	@DisplayName("Keeps read-only transactions run on the primary off the replica")
+	void test_onPrimary() {
+		DataSource dataSource = ReplicaRoutingDataSource.lazy(primary, replica, Duration.ZERO);
+
+		assertEquals("primary", ReplicaRoutingDataSource.onPrimary(() -> whoAnswers(dataSource, true)));
+		assertEquals("replica", whoAnswers(dataSource, true));
+	}
+
+	private static String whoAnswers(DataSource dataSource, boolean readOnly) {
+		TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(
+				status -> new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+	}
+
+	private static EmbeddedDatabase database(String name) {
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName(name)
+				.build();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+		jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+		return database;
+	}
+}
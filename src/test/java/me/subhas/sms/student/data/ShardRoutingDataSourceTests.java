@@ -0,0 +1,72 @@
+package me.subhas.sms.student.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+class ShardRoutingDataSourceTests {
+
+	private EmbeddedDatabase first;
+
+	private EmbeddedDatabase second;
+
+	@BeforeEach
+	void startDatabases() {
+		first = database("shard0");
+		second = database("shard1");
+	}
+
+	@AfterEach
+	void stopDatabases() {
+		first.shutdown();
+		second.shutdown();
+	}
+
+	@Test
+	@DisplayName("Sends each transaction to the shard selected when it started")
+	void test_routesBySelectedShard() {
+		DataSource dataSource = new ShardRoutingDataSource(List.of(first, second));
+		StudentShards shards = new StudentShards(new DataSourceTransactionManager(dataSource),
+				List.of("shard0", "shard1"));
+		try {
+			assertEquals(List.of("shard0", "shard1"), shards.readEach(shard -> whoAnswers(dataSource)));
+			assertEquals("shard1", shards.write(1, () -> whoAnswers(dataSource)));
+			assertEquals("shard0", shards.read(1, () -> shards.read(0, () -> whoAnswers(dataSource))));
+			assertNull(StudentShards.current());
+		} finally {
+			shards.destroy();
+		}
+	}
+
+	@Test
+	@DisplayName("Answers from the first shard when no shard is selected")
+	void test_defaultsToFirstShard() {
+		assertEquals("shard0", whoAnswers(new ShardRoutingDataSource(List.of(first, second))));
+	}
+
+	private static String whoAnswers(DataSource dataSource) {
+		return new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class);
+	}
+
+	private static EmbeddedDatabase database(String name) {
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).setName(name)
+				.build();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(database);
+		jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(16))");
+		jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+		return database;
+	}
+}
@@ -0,0 +1,44 @@
+package me.subhas.sms.student.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import me.subhas.sms.student.data.entity.AgeClock;
+import me.subhas.sms.student.data.entity.Student;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import({ StudentCsvExporter.class, StudentShards.class })
+class StudentCsvExporterTests {
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private StudentCsvExporter studentCsvExporter;
+
+	@Test
+	@DisplayName("Writes every student as a CSV row in id order, quoting fields where needed")
+	void test_writeCsv() throws Exception {
+		LocalDate dob = LocalDate.of(1997, 12, 10);
+		List<Student> students = studentRepository.saveAllAndFlush(
+				List.of(new Student("Xyz, Abc", "abc.xyz@school.com", dob),
+						new Student("Wuv \"Hij\"", "wuv.hij@school.com", null)));
+		StringWriter writer = new StringWriter();
+
+		studentCsvExporter.writeCsv(writer);
+
+		int age = AgeClock.ageOn(dob, AgeClock.today());
+		assertEquals(StudentCsvExporter.HEADER
+				+ students.get(0).getId() + ",\"Xyz, Abc\",abc.xyz@school.com,1997-12-10," + age + "\r\n"
+				+ students.get(1).getId() + ",\"Wuv \"\"Hij\"\"\",wuv.hij@school.com,,\r\n", writer.toString());
+	}
+}
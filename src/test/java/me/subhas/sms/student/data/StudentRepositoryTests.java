@@ -0,0 +1,189 @@
+package me.subhas.sms.student.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+class StudentRepositoryTests {
+
+	@Autowired
+	private StudentRepository studentRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Test
+	@DisplayName("Finds a student by email regardless of case and surrounding whitespace")
+	void test_findByStudentEmail() {
+		Student student = studentRepository
+				.save(new Student("Abc Xyz", "Abc.Xyz@school.com", LocalDate.of(1997, 12, 10)));
+
+		assertEquals(student.getId(), studentRepository.findByStudentEmail(" abc.xyz@SCHOOL.com").get().getId());
+		assertTrue(studentRepository.findByStudentEmail("nobody@school.com").isEmpty());
+	}
+
+	@Test
+	@DisplayName("Streams every student as a view in id order, with its version")
+	void test_streamViews() {
+		List<Student> students = studentRepository.saveAll(
+				List.of(new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10)),
+						new Student("Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15))));
+		entityManager.flush();
+
+		List<StudentView> views;
+		try (var stream = studentRepository.streamViews()) {
+			views = stream.toList();
+		}
+		assertEquals(List.of(new StudentView(students.get(0).getId(), "Abc Xyz", "abc.xyz@school.com",
+				LocalDate.of(1997, 12, 10), 0L),
+				new StudentView(students.get(1).getId(), "Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15),
+						0L)),
+				views);
+		assertEquals(views.get(1), studentRepository.findViewByNormalizedEmail("wuv.hij@school.com").get());
+	}
+
+	@Test
+	@DisplayName("Returns the normalized emails that are already taken")
+	void test_findTakenEmails() {
+		studentRepository.save(new Student("Abc Xyz", "Abc.Xyz@school.com", LocalDate.of(1997, 12, 10)));
+
+		assertEquals(List.of("abc.xyz@school.com"),
+				studentRepository.findTakenEmails(List.of("abc.xyz@school.com", "wuv.hij@school.com")));
+	}
+
+	@Test
+	@DisplayName("Returns the students after the given id in id order")
+	void test_findPageAfter() {
+		List<Student> students = studentRepository.saveAll(
+				List.of(new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10)),
+						new Student("Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15)),
+						new Student("Klm Nop", "klm.nop@school.com", LocalDate.of(1999, 1, 20))));
+
+		List<StudentView> page = studentRepository.findPageAfter(students.get(0).getId(), PageRequest.of(0, 1));
+
+		assertEquals(List.of(students.get(1).getId()), page.stream().map(StudentView::id).toList());
+	}
+
+	@Test
+	@DisplayName("Returns the views of the existing students among the given ids")
+	void test_findViewsByIds() {
+		List<Student> students = studentRepository.saveAllAndFlush(
+				List.of(new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10)),
+						new Student("Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15))));
+		Long first = students.get(0).getId();
+		Long second = students.get(1).getId();
+
+		List<StudentView> views = studentRepository.findViewsByIds(List.of(second, first, second + 100));
+
+		assertEquals(Set.of(first, second), views.stream().map(StudentView::id).collect(Collectors.toSet()));
+		assertTrue(views.contains(new StudentView(first, "Abc Xyz", "abc.xyz@school.com",
+				LocalDate.of(1997, 12, 10), students.get(0).getVersion())));
+	}
+
+	@Test
+	@DisplayName("Selects only id, version and the requested attributes of a page")
+	void test_findSparsePageAfter() {
+		List<Student> students = studentRepository.saveAllAndFlush(
+				List.of(new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10)),
+						new Student("Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15)),
+						new Student("Klm Nop", "klm.nop@school.com", LocalDate.of(1999, 1, 20))));
+		Student second = students.get(1);
+
+		List<StudentView> page = studentRepository.findSparsePageAfter(students.get(0).getId(),
+				LocalDate.of(1998, 1, 1), LocalDate.of(1998, 12, 31), Set.of("name"), 10);
+		List<StudentView> all = studentRepository.findSparsePageAfter(0L, null, null, Set.of("email", "dob"), 2);
+
+		assertEquals(List.of(new StudentView(second.getId(), "Wuv Hij", null, null, second.getVersion())), page);
+		assertEquals(List.of(students.get(0).getId(), second.getId()), all.stream().map(StudentView::id).toList());
+		assertEquals("wuv.hij@school.com", all.get(1).email());
+		assertEquals(LocalDate.of(1998, 8, 15), all.get(1).dob());
+		assertNull(all.get(1).name());
+	}
+
+	@Test
+	@DisplayName("Searches names and emails by substring with prefix matches first")
+	void test_search() {
+		List<Student> students = studentRepository.saveAll(
+				List.of(new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10)),
+						new Student("Xyz Abc", "wuv.hij@school.com", LocalDate.of(1998, 8, 15)),
+						new Student("Klm Nop", "klm_nop@school.com", LocalDate.of(1999, 1, 20))));
+
+		List<StudentView> found = studentRepository.search("%xyz%", "xyz%", PageRequest.of(0, 10));
+		List<StudentView> escaped = studentRepository.search("%m\\_n%", "m\\_n%", PageRequest.of(0, 10));
+
+		assertEquals(List.of(students.get(1).getId(), students.get(0).getId()),
+				found.stream().map(StudentView::id).toList());
+		assertEquals(List.of(students.get(2).getId()), escaped.stream().map(StudentView::id).toList());
+	}
+
+	@Test
+	@DisplayName("Returns the students born within the range after the given id")
+	void test_findPageAfterBornBetween() {
+		List<Student> students = studentRepository.saveAll(
+				List.of(new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10)),
+						new Student("Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15)),
+						new Student("Klm Nop", "klm.nop@school.com", LocalDate.of(1999, 1, 20))));
+
+		List<StudentView> page = studentRepository.findPageAfterBornBetween(0L, LocalDate.of(1998, 1, 1),
+				LocalDate.of(1999, 1, 20), PageRequest.of(0, 10));
+
+		assertEquals(List.of(students.get(1).getId(), students.get(2).getId()),
+				page.stream().map(StudentView::id).toList());
+	}
+
+	@Test
+	@DisplayName("Deletes students by id with a single statement and reports the removed rows")
+	void test_deleteStudentById() {
+		List<Student> students = studentRepository.saveAllAndFlush(
+				List.of(new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10)),
+						new Student("Wuv Hij", "wuv.hij@school.com", LocalDate.of(1998, 8, 15)),
+						new Student("Klm Nop", "klm.nop@school.com", LocalDate.of(1999, 1, 20))));
+		Long first = students.get(0).getId();
+		Long second = students.get(1).getId();
+		Long third = students.get(2).getId();
+
+		assertEquals(1, studentRepository.deleteStudentById(first));
+		assertEquals(0, studentRepository.deleteStudentById(first));
+		assertEquals(List.of(second), studentRepository.findExistingIds(List.of(first, second)));
+		assertEquals(2, studentRepository.deleteStudentsByIds(List.of(second, third)));
+		entityManager.clear();
+
+		assertEquals(0, studentRepository.count());
+	}
+
+	@Test
+	@DisplayName("Updates only the given fields and bumps the version")
+	void test_updateStudent() {
+		Student student = studentRepository
+				.saveAndFlush(new Student("Abc Xyz", "abc.xyz@school.com", LocalDate.of(1997, 12, 10)));
+		Long version = student.getVersion();
+
+		assertEquals(1, studentRepository.updateStudent(student.getId(), null, "New@school.com", "new@school.com"));
+		assertEquals(0, studentRepository.updateStudentAtVersion(student.getId(), "Renamed", null, null, version));
+		assertEquals(1,
+				studentRepository.updateStudentAtVersion(student.getId(), "Renamed", null, null, version + 1));
+		entityManager.clear();
+
+		StudentView updated = studentRepository.findViewById(student.getId()).get();
+		assertEquals("Renamed", updated.name());
+		assertEquals("New@school.com", updated.email());
+		assertEquals(version + 2, updated.version());
+		assertTrue(studentRepository.findByStudentEmail("new@school.com").isPresent());
+	}
+}
@@ -0,0 +1,24 @@
+package me.subhas.sms.student.data.entity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.Period;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AgeClockTests {
+
+	@Test
+	@DisplayName("Computes the same age as Period, including for a date of birth in the future")
+	void test_ageOn() {
+		assertEquals(-3, AgeClock.ageOn(LocalDate.of(2030, 6, 1), LocalDate.of(2026, 7, 1)));
+		assertEquals(0, AgeClock.ageOn(LocalDate.of(2000, 2, 29), LocalDate.of(2001, 2, 28)));
+
+		LocalDate date = LocalDate.of(2026, 7, 1);
+		for (LocalDate dob = LocalDate.of(2018, 1, 1); dob.isBefore(LocalDate.of(2035, 1, 1)); dob = dob.plusDays(1)) {
+			assertEquals(Period.between(dob, date).getYears(), AgeClock.ageOn(dob, date), dob.toString());
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package me.subhas.sms.student.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ConcurrencyLimiterTests {
+
+	private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	@Test
+	@DisplayName("Rejects straight away once the limit is reached without a queue timeout")
+	void test_rejectsOverLimit() throws Exception {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("read", 2, 10, Duration.ZERO);
+
+		assertTrue(limiter.tryAcquire());
+		assertTrue(limiter.tryAcquire());
+		assertFalse(limiter.tryAcquire());
+		limiter.release();
+		assertTrue(limiter.tryAcquire());
+
+		assertEquals(1, limiter.getRejected());
+		assertEquals(2, limiter.getInFlight());
+	}
+
+	@Test
+	@DisplayName("Waits for a permit within the queue timeout")
+	void test_waitsForPermit() throws Exception {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("write", 1, 10, Duration.ofSeconds(5));
+		assertTrue(limiter.tryAcquire());
+
+		CompletableFuture<Void> release = CompletableFuture.runAsync(limiter::release,
+				CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+
+		assertTrue(limiter.tryAcquire());
+		release.join();
+		assertEquals(0, limiter.getRejected());
+	}
+
+	@Test
+	@DisplayName("Grows the limit while latency holds and shrinks it when latency climbs")
+	void test_followsLatency() throws Exception {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("read", 10, 100, Duration.ZERO);
+
+		runAtLimit(limiter, 20, MILLI);
+		int grown = limiter.getLimit();
+		runAtLimit(limiter, 20, 10 * MILLI);
+
+		assertTrue(grown > 10, "limit grew to " + grown);
+		assertTrue(limiter.getLimit() < grown / 2, "limit shrank to " + limiter.getLimit());
+	}
+
+	@Test
+	@DisplayName("Leaves the limit alone while less than half of it is used")
+	void test_ignoresIdleSamples() throws Exception {
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("read", 10, 100, Duration.ZERO);
+
+		for (int i = 0; i < 50; i++) {
+			assertTrue(limiter.tryAcquire());
+			limiter.release(MILLI);
+		}
+
+		assertEquals(10, limiter.getLimit());
+	}
+
+	@Test
+	@DisplayName("Publishes limit, in-flight and rejection meters tagged by kind")
+	void test_metrics() throws Exception {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		ConcurrencyLimiter limiter = new ConcurrencyLimiter("write", 1, 10, Duration.ZERO);
+		limiter.bindTo(registry);
+
+		limiter.tryAcquire();
+		limiter.tryAcquire();
+
+		assertEquals(1, registry.get("student.limiter.limit").tag("kind", "write").gauge().value());
+		assertEquals(1, registry.get("student.limiter.in.flight").tag("kind", "write").gauge().value());
+		assertEquals(1, registry.get("student.limiter.rejected").tag("kind", "write").functionCounter().count());
+	}
+
+	/**
+	 * Fills every permit, then releases them all with the given latency.
+	 */
+	private static void runAtLimit(ConcurrencyLimiter limiter, int rounds, long rttNanos) throws Exception {
+		for (int round = 0; round < rounds; round++) {
+			int acquired = 0;
+			while (limiter.tryAcquire()) {
+				acquired++;
+			}
+			for (int i = 0; i < acquired; i++) {
+				limiter.release(rttNanos);
+			}
+		}
+	}
+}
@@ -0,0 +1,86 @@
+package me.subhas.sms.student.web;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import me.subhas.sms.student.data.ReactiveStudentRepository;
+import me.subhas.sms.student.data.entity.Student;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@WebMvcTest(ReactiveStudentController.class)
+class ReactiveStudentControllerTests {
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private ReactiveStudentRepository reactiveStudentRepository;
+
+	@Test
+	@DisplayName("Streams students as newline delimited JSON")
+	void test_listStudents() throws Exception {
+		when(reactiveStudentRepository.findAll())
+				.thenReturn(Flux.just(new Student(1L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1)),
+						new Student(2L, "XYZ ABC", "xyz.abc@school.com", LocalDate.of(1988, 8, 1))));
+
+		MvcResult result = mockMvc.perform(get("/api/v1/reactive/students").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)).andDo(print());
+
+		verify(reactiveStudentRepository).findAll();
+	}
+
+	@Test
+	@DisplayName("Successfully get a Student detail")
+	void test_getStudent_success() throws Exception {
+		when(reactiveStudentRepository.findById(23L))
+				.thenReturn(Mono.just(new Student(23L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1))));
+
+		MvcResult result = mockMvc.perform(get("/api/v1/reactive/students/23")).andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(23L))
+				.andExpect(jsonPath("$.name").value("ABC XYZ")).andDo(print());
+	}
+
+	@Test
+	@DisplayName("Returns Not Found, when requested student not found while getting")
+	void test_getStudent_failure() throws Exception {
+		when(reactiveStudentRepository.findById(23L)).thenReturn(Mono.empty());
+
+		MvcResult result = mockMvc.perform(get("/api/v1/reactive/students/23")).andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.errorMessage").value("Student with id 23 does not exist")).andDo(print());
+	}
+
+	@Test
+	@DisplayName("Successfully get a Student by email")
+	void test_getStudentByEmail() throws Exception {
+		when(reactiveStudentRepository.findByEmail("abc.xyz@school.com"))
+				.thenReturn(Mono.just(new Student(23L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1))));
+
+		MvcResult result = mockMvc.perform(get("/api/v1/reactive/students?email=abc.xyz@school.com"))
+				.andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(23L))
+				.andDo(print());
+	}
+}
@@ -0,0 +1,65 @@
+package me.subhas.sms.student.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import me.subhas.sms.student.data.StatementCounter;
+
+class StatementCountFilterTests {
+
+	@Test
+	@DisplayName("Records the statements issued while handling a request")
+	void test_recordsStatementsPerRequest() throws Exception {
+		SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+		StatementCountFilter filter = new StatementCountFilter(meterRegistry);
+		StatementCounter statementCounter = new StatementCounter();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/students/1");
+
+		filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+			req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/students/{studentId}");
+			statementCounter.inspect("select 1");
+			statementCounter.inspect("select 2");
+		});
+
+		DistributionSummary summary = meterRegistry.get("student.jpa.statements")
+				.tag("uri", "/api/v1/students/{studentId}").tag("method", "GET").summary();
+		assertEquals(1, summary.count());
+		assertEquals(2, summary.totalAmount());
+	}
+
+	@Test
+	@DisplayName("Counts statements of work handed to another thread along with the request's")
+	void test_propagatesToOtherThreads() throws Exception {
+		StatementCounter statementCounter = new StatementCounter();
+		StatementCounter.start();
+		statementCounter.inspect("select 1");
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			executor.submit(StatementCounter.propagating(() -> statementCounter.inspect("select 2"))).get();
+			executor.submit(() -> statementCounter.inspect("select 3")).get();
+		} finally {
+			executor.shutdown();
+		}
+
+		assertEquals(2, StatementCounter.stop());
+	}
+
+	@Test
+	@DisplayName("Ignores statements issued outside of a request")
+	void test_ignoresStatementsOutsideRequest() {
+		new StatementCounter().inspect("select 1");
+
+		assertEquals(-1, StatementCounter.stop());
+	}
+}
@@ -0,0 +1,114 @@
+package me.subhas.sms.student.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import me.subhas.sms.student.business.StudentIngestion;
+import me.subhas.sms.student.business.StudentService;
+import me.subhas.sms.student.data.StudentCsvExporter;
+import me.subhas.sms.student.data.entity.Student;
+
+/**
+ * Runs the streaming endpoints on a real server, where the async request
+ * timeout is enforced, with a default timeout far shorter than the streams.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "spring.mvc.async.request-timeout=200ms",
+		"student.export.timeout-millis=10000", "student.stream.timeout-millis=10000" })
+class StreamingResponsesTests {
+	private static final long STREAM_MILLIS = 1000;
+
+	@Configuration
+	@ImportAutoConfiguration({ ServletWebServerFactoryAutoConfiguration.class,
+			DispatcherServletAutoConfiguration.class, WebMvcAutoConfiguration.class,
+			HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class,
+			TaskExecutionAutoConfiguration.class })
+	@Import({ StudentExportController.class, StudentController.class })
+	static class StreamingConfig {
+	}
+
+	@LocalServerPort
+	private int port;
+
+	@MockBean
+	private StudentCsvExporter studentCsvExporter;
+
+	@MockBean
+	private StudentService studentService;
+
+	@MockBean
+	private StudentIngestion studentIngestion;
+
+	@Test
+	@DisplayName("Streams the whole export past the default async request timeout")
+	void test_exportStudents_outlastsDefaultTimeout() throws Exception {
+		doAnswer(invocation -> {
+			Writer writer = invocation.getArgument(0, Writer.class);
+			writer.write("id,name\r\n");
+			writer.flush();
+			TimeUnit.MILLISECONDS.sleep(STREAM_MILLIS);
+			writer.write("1,Abc Xyz\r\n");
+			return null;
+		}).when(studentCsvExporter).writeCsv(any());
+
+		HttpResponse<String> response = get("/api/v1/students/export");
+
+		assertEquals(200, response.statusCode());
+		assertEquals("id,name\r\n1,Abc Xyz\r\n", response.body());
+	}
+
+	@Test
+	@DisplayName("Streams all students as NDJSON past the default async request timeout")
+	void test_streamStudents_outlastsDefaultTimeout() throws Exception {
+		doAnswer(invocation -> {
+			Consumer<Student> consumer = invocation.getArgument(0);
+			consumer.accept(new Student(1L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1)));
+			TimeUnit.MILLISECONDS.sleep(STREAM_MILLIS);
+			consumer.accept(new Student(2L, "XYZ ABC", "xyz.abc@school.com", LocalDate.of(1988, 8, 1)));
+			return null;
+		}).when(studentService).streamStudents(any());
+
+		HttpResponse<String> response = get("/api/v1/students", "application/x-ndjson");
+
+		assertEquals(200, response.statusCode());
+		String[] lines = response.body().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[1].startsWith("{\"id\":2,"));
+	}
+
+	private HttpResponse<String> get(String path) throws Exception {
+		return get(path, "*/*");
+	}
+
+	private HttpResponse<String> get(String path, String accept) throws Exception {
+		return HttpClient.newHttpClient().send(
+				HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).header("Accept", accept).build(),
+				HttpResponse.BodyHandlers.ofString());
+	}
+}
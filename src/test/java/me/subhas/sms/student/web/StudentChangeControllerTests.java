@@ -0,0 +1,66 @@
+package me.subhas.sms.student.web;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import me.subhas.sms.student.business.StudentChangeEvent;
+import me.subhas.sms.student.business.StudentChangeLog;
+import me.subhas.sms.student.data.entity.StudentView;
+
+@WebMvcTest(StudentChangeController.class)
+@Import(StudentChangeLog.class)
+class StudentChangeControllerTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private StudentChangeLog changeLog;
+
+	@Test
+	@DisplayName("Streams committed changes after the Last-Event-ID as server-sent events")
+	void test_streamChanges() throws Exception {
+		changeLog.append(StudentChangeEvent.created(1L, "Abc Xyz", "abc.xyz@school.com"));
+		changeLog.append(StudentChangeEvent.deleted(2L));
+
+		MockHttpServletResponse response = mockMvc
+				.perform(get("/api/v1/students/changes").accept(MediaType.TEXT_EVENT_STREAM)
+						.header("Last-Event-ID", changeLog.epoch() + "-1"))
+				.andExpect(request().asyncStarted()).andReturn().getResponse();
+		changeLog.append(StudentChangeEvent.updated(3L, "Wuv Hij", null));
+		changeLog.append(StudentChangeEvent
+				.updated(new StudentView(4L, "Klm Nop", "klm.nop@school.com", LocalDate.of(1998, 8, 15), 2L)));
+
+		String epoch = changeLog.epoch();
+		String body = awaitContent(response, "id:" + epoch + "-4");
+		assertTrue(body.contains("id:" + epoch + "-2\nevent:deleted\ndata:{\"type\":\"DELETED\",\"id\":2"), body);
+		assertTrue(body.contains("event:updated\ndata:{\"type\":\"UPDATED\",\"id\":3,\"name\":\"Wuv Hij\""), body);
+		assertTrue(body.contains(
+				"data:{\"type\":\"UPDATED\",\"id\":4,\"name\":\"Klm Nop\",\"email\":\"klm.nop@school.com\"}\n"),
+				body);
+		assertFalse(body.contains("id:" + epoch + "-1\n"), body);
+	}
+
+	private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+		long deadline = System.currentTimeMillis() + 5000;
+		String body = response.getContentAsString();
+		while (!body.contains(expected) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			body = response.getContentAsString();
+		}
+		return body;
+	}
+}
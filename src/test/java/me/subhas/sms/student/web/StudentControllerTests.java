@@ -1,38 +1,73 @@
 package me.subhas.sms.student.web;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
-
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+import me.subhas.sms.student.business.BatchItemResult;
+import me.subhas.sms.student.business.DobRange;
+import me.subhas.sms.student.business.IngestionStatus;
+import me.subhas.sms.student.business.StudentField;
+import me.subhas.sms.student.business.StudentIngestion;
+import me.subhas.sms.student.business.StudentPage;
+import me.subhas.sms.student.business.StudentPatch;
 import me.subhas.sms.student.business.StudentService;
+import me.subhas.sms.student.business.StudentSuggestion;
+import me.subhas.sms.student.business.exception.BatchTooLargeException;
 import me.subhas.sms.student.business.exception.EmailAlreadyTakenException;
 import me.subhas.sms.student.business.exception.StudentNotFoundException;
+import me.subhas.sms.student.business.exception.StudentVersionMismatchException;
+import me.subhas.sms.student.data.entity.AgeClock;
 import me.subhas.sms.student.data.entity.Student;
+import me.subhas.sms.student.data.entity.StudentView;
 
-@WebMvcTest
+@WebMvcTest(StudentController.class)
 class StudentControllerTests {
 	@Autowired
 	private MockMvc mockMvc;
@@ -40,26 +75,133 @@ class StudentControllerTests {
 	@MockBean
 	private StudentService studentService;
 
+	@MockBean
+	private StudentIngestion studentIngestion;
+
+	@Autowired
+	private ConcurrencyLimiter readLimiter;
+
 	@Test
     @DisplayName("Successfully get empty array")
     void test_listStudents_returnEmptyArray() throws Exception {
 
-	when(studentService.listStudents()).thenReturn(List.of());
+	when(studentService.listStudents(null, 100, DobRange.UNBOUNDED, StudentField.ALL)).thenReturn(new StudentPage(List.of(), null));
 
 	mockMvc.perform(get("/api/v1/students")).andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(0)))
-		.andDo(print());
+		.andExpect(header().doesNotExist(HttpHeaders.LINK)).andDo(print());
 
-	verify(studentService).listStudents();
+	verify(studentService).listStudents(null, 100, DobRange.UNBOUNDED, StudentField.ALL);
     }
 
+	@Test
+	@DisplayName("Link to the next page when more students may follow")
+	void test_listStudents_nextLink() throws Exception {
+		List<StudentView> students = List.of(
+				new StudentView(5L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 0L),
+				new StudentView(9L, "XYZ ABC", "xyz.abc@school.com", LocalDate.of(1988, 8, 1), 0L));
+		when(studentService.listStudents(2L, 2, DobRange.UNBOUNDED, StudentField.ALL)).thenReturn(new StudentPage(students, 9L));
+
+		mockMvc.perform(get("/api/v1/students?after=2&size=2")).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2))).andExpect(jsonPath("$[1].id").value(9L))
+				.andExpect(header().string(HttpHeaders.LINK, "<http://localhost/api/v1/students?size=2&after=9>; rel=\"next\""))
+				.andDo(print());
+
+		verify(studentService).listStudents(2L, 2, DobRange.UNBOUNDED, StudentField.ALL);
+	}
+
+	@Test
+	@DisplayName("Filter students by an age range translated to a date of birth range")
+	void test_listStudents_ageRange() throws Exception {
+		when(studentService.listStudents(any(), anyInt(), any(DobRange.class), any()))
+				.thenReturn(new StudentPage(List.of(), null));
+
+		mockMvc.perform(get("/api/v1/students?minAge=18&maxAge=21&bornTo=2010-01-01"))
+				.andExpect(status().isOk());
+
+		verify(studentService).listStudents(null, 100,
+				DobRange.forAges(18, 21).intersect(DobRange.of(null, LocalDate.of(2010, 1, 1))), StudentField.ALL);
+	}
+
+	@Test
+	@DisplayName("Returns Bad Request, when the age range is not valid")
+	void test_listStudents_invalidAgeRange() throws Exception {
+		mockMvc.perform(get("/api/v1/students?minAge=21&maxAge=18")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errorMessage").value("Age range 21 to 18 is not valid"));
+	}
+
+	@Test
+	@DisplayName("Successfully list only the requested fields of Students")
+	void test_listStudents_fields() throws Exception {
+		List<StudentView> students = List.of(new StudentView(5L, "ABC XYZ", null, LocalDate.of(1987, 8, 1), 0L));
+		when(studentService.listStudents(null, 100, DobRange.UNBOUNDED,
+				EnumSet.of(StudentField.NAME, StudentField.AGE)))
+				.thenReturn(new StudentPage(students, null));
+
+		mockMvc.perform(get("/api/v1/students?fields=name, age")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].name").value("ABC XYZ")).andExpect(jsonPath("$[0].age").isNumber())
+				.andExpect(jsonPath("$[0].id").doesNotExist()).andExpect(jsonPath("$[0].email").doesNotExist())
+				.andExpect(jsonPath("$[0].dob").doesNotExist());
+	}
+
+	@Test
+	@DisplayName("Returns Bad Request, when an unknown field is requested")
+	void test_listStudents_unknownField() throws Exception {
+		mockMvc.perform(get("/api/v1/students?fields=id,password")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errorMessage").value("Unknown student field 'password'"));
+
+		verifyNoInteractions(studentService);
+	}
+
+	@Test
+	@DisplayName("Stream students as newline delimited JSON")
+	void test_streamStudents() throws Exception {
+		doAnswer(invocation -> {
+			Consumer<Student> consumer = invocation.getArgument(0);
+			consumer.accept(new Student(1L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1)));
+			consumer.accept(new Student(2L, "XYZ ABC", "xyz.abc@school.com", LocalDate.of(1988, 8, 1)));
+			return null;
+		}).when(studentService).streamStudents(any());
+
+		MvcResult result = mockMvc.perform(get("/api/v1/students").accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted()).andReturn();
+		String body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON)).andReturn().getResponse()
+				.getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("{\"id\":1,"));
+		assertTrue(lines[1].startsWith("{\"id\":2,"));
+	}
+
+	@Test
+	@DisplayName("Successfully search Students by name or email")
+	void test_searchStudents() throws Exception {
+		when(studentService.searchStudents("xyz", 20)).thenReturn(
+				List.of(new StudentView(5L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 0L)));
+
+		mockMvc.perform(get("/api/v1/students/search").param("q", "xyz")).andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(1))).andExpect(jsonPath("$[0].id").value(5L));
+	}
+
+	@Test
+	@DisplayName("Successfully suggest Students for a prefix")
+	void test_autocomplete() throws Exception {
+		when(studentService.suggestStudents("ab", 5)).thenReturn(List.of(new StudentSuggestion(5L, "ABC XYZ")));
+
+		mockMvc.perform(get("/api/v1/students/autocomplete").param("prefix", "ab").param("limit", "5"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(1)))
+				.andExpect(jsonPath("$[0].id").value(5L)).andExpect(jsonPath("$[0].name").value("ABC XYZ"));
+	}
+
 	@Test
 	@DisplayName("Successfully get a Student detail")
 	void test_getStudent_success() throws Exception {
 
 		LocalDate dob = LocalDate.of(1987, 8, 1);
 		int expectedAge = Period.between(dob, LocalDate.now()).getYears();
-		Student student = new Student(23L, "ABC XYZ", "abc.xyz@school.com", dob);
-		when(studentService.getStudent(anyLong())).thenReturn(student);
+		StudentView student = new StudentView(23L, "ABC XYZ", "abc.xyz@school.com", dob, 0L);
+		when(studentService.findStudent(anyLong())).thenReturn(Optional.of(student));
 
 		mockMvc.perform(get("/api/v1/students/23")).andExpect(status().isOk()).andExpect(jsonPath("$.id").value(23L))
 				.andExpect(jsonPath("$.name").value("ABC XYZ"))
@@ -67,21 +209,143 @@ class StudentControllerTests {
 				.andExpect(jsonPath("$.dob").value("1987-08-01")).andExpect(jsonPath("$.age").value(expectedAge))
 				.andDo(print());
 
-		verify(studentService).getStudent(23L);
+		verify(studentService).findStudent(23L);
+	}
+
+	@Test
+	@DisplayName("Successfully get only the requested fields of a Student")
+	void test_getStudent_fields() throws Exception {
+		when(studentService.findStudent(23L)).thenReturn(
+				Optional.of(new StudentView(23L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 0L)));
+
+		mockMvc.perform(get("/api/v1/students/23?fields=id,email")).andExpect(status().isOk())
+				.andExpect(content().json("{\"id\":23,\"email\":\"abc.xyz@school.com\"}", true));
+	}
+
+	@Test
+	@DisplayName("Get a Student by email, or Not Found for an unknown email")
+	void test_getStudentByEmail() throws Exception {
+		when(studentService.findStudentByEmail("Abc.Xyz@school.com")).thenReturn(
+				Optional.of(new StudentView(23L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 0L)));
+
+		mockMvc.perform(get("/api/v1/students?email=Abc.Xyz@school.com&fields=id,name"))
+				.andExpect(status().isOk()).andExpect(content().json("{\"id\":23,\"name\":\"ABC XYZ\"}", true));
+		mockMvc.perform(get("/api/v1/students?email=nobody@school.com")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	@DisplayName("Returns Not Modified, when the Student still matches If-None-Match")
+	void test_getStudent_notModified() throws Exception {
+		StudentView student = new StudentView(23L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 4L);
+		when(studentService.findStudent(23L)).thenReturn(Optional.of(student));
+
+		String etag = mockMvc.perform(get("/api/v1/students/23")).andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/v1/students/23").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified()).andExpect(content().string(""));
+
+		when(studentService.findStudent(23L)).thenReturn(
+				Optional.of(new StudentView(23L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 5L)));
+		mockMvc.perform(get("/api/v1/students/23").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.id").value(23L))
+				.andExpect(jsonPath("$.version").doesNotExist());
+	}
+
+	@Test
+	@DisplayName("Returns Not Modified, when the page of Students still matches If-None-Match")
+	void test_listStudents_notModified() throws Exception {
+		List<StudentView> students = List
+				.of(new StudentView(5L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 0L));
+		when(studentService.listStudents(null, 100, DobRange.UNBOUNDED, StudentField.ALL)).thenReturn(new StudentPage(students, null));
+
+		String etag = mockMvc.perform(get("/api/v1/students")).andExpect(status().isOk()).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+
+		mockMvc.perform(get("/api/v1/students").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified()).andExpect(content().string(""));
+	}
+
+	@Test
+	@DisplayName("Successfully get a Student detail as CBOR or Smile when the client asks for it")
+	void test_getStudent_binary() throws Exception {
+		StudentView student = new StudentView(23L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 0L);
+		when(studentService.findStudent(anyLong())).thenReturn(Optional.of(student));
+
+		for (ObjectMapper mapper : List.of(new CBORMapper(), new SmileMapper())) {
+			String mediaType = mapper instanceof CBORMapper ? "application/cbor" : "application/x-jackson-smile";
+			byte[] body = mockMvc.perform(get("/api/v1/students/23").accept(mediaType)).andExpect(status().isOk())
+					.andExpect(content().contentType(mediaType))
+					.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT)).andReturn().getResponse()
+					.getContentAsByteArray();
+
+			JsonNode node = mapper.readTree(body);
+			assertEquals(23L, node.get("id").asLong());
+			assertEquals("1987-08-01", node.get("dob").asText());
+		}
+	}
+
+	@Test
+	@DisplayName("Tags each encoding of a Student with its own ETag")
+	void test_getStudent_etagPerEncoding() throws Exception {
+		StudentView student = new StudentView(23L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 4L);
+		when(studentService.findStudent(23L)).thenReturn(Optional.of(student));
+
+		String json = mockMvc.perform(get("/api/v1/students/23")).andReturn().getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		String cbor = mockMvc.perform(get("/api/v1/students/23").accept("application/cbor")).andReturn()
+				.getResponse().getHeader(HttpHeaders.ETAG);
+		String smile = mockMvc.perform(get("/api/v1/students/23").accept("application/x-jackson-smile"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		assertEquals(3, Set.of(json, cbor, smile).size());
+		mockMvc.perform(get("/api/v1/students/23").accept("application/cbor").header(HttpHeaders.IF_NONE_MATCH, json))
+				.andExpect(status().isOk()).andExpect(content().contentType("application/cbor"));
+		mockMvc.perform(get("/api/v1/students/23").accept("application/cbor").header(HttpHeaders.IF_NONE_MATCH, cbor))
+				.andExpect(status().isNotModified());
+
+		mockMvc.perform(put("/api/v1/students/23?name=Xyz").header(HttpHeaders.IF_MATCH, cbor))
+				.andExpect(status().isOk());
+		verify(studentService).updateStudent(23L, "Xyz", null, 4L);
+	}
+
+	@Test
+	@DisplayName("Returns errors in the binary encoding the client asked for")
+	void test_getStudent_binaryNotFound() throws Exception {
+		when(studentService.findStudent(anyLong())).thenReturn(Optional.empty());
+
+		byte[] body = mockMvc.perform(get("/api/v1/students/23").accept("application/cbor"))
+				.andExpect(status().isNotFound()).andExpect(content().contentType("application/cbor")).andReturn()
+				.getResponse().getContentAsByteArray();
+
+		assertEquals("Student with id 23 does not exist", new CBORMapper().readTree(body).get("errorMessage").asText());
 	}
 
 	@Test
 	@DisplayName("Returns Not Found, when requested student not found while getting")
 	void test_getStudent_failure() throws Exception {
-		long studentId = 23L;
-		when(studentService.getStudent(anyLong()))
-				.thenThrow(new StudentNotFoundException(String.format("Student with id %d does not exist", studentId)));
+		when(studentService.findStudent(anyLong())).thenReturn(Optional.empty());
 
 		mockMvc.perform(get("/api/v1/students/23")).andExpect(status().isNotFound())
 				.andExpect(jsonPath("$.statusCode").value(404))
 				.andExpect(jsonPath("$.errorMessage").value("Student with id 23 does not exist")).andDo(print());
 
-		verify(studentService).getStudent(23L);
+		verify(studentService).findStudent(23L);
+	}
+
+	@Test
+	@DisplayName("Successfully get several Students by id in one request")
+	void test_getStudents_byIds() throws Exception {
+		when(studentService.findStudents(List.of(7L, 23L, 99L))).thenReturn(List.of(
+				new StudentView(7L, "WUV HIJ", "wuv.hij@school.com", LocalDate.of(1990, 1, 1), 0L),
+				new StudentView(23L, "ABC XYZ", "abc.xyz@school.com", LocalDate.of(1987, 8, 1), 0L)));
+
+		mockMvc.perform(get("/api/v1/students?ids=7,23,99&fields=id,name")).andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andExpect(content().json("[{\"id\":7,\"name\":\"WUV HIJ\"},{\"id\":23,\"name\":\"ABC XYZ\"}]", true));
+
+		verify(studentService).findStudents(List.of(7L, 23L, 99L));
+		verifyNoMoreInteractions(studentService);
 	}
 
 	@Test
@@ -124,6 +388,54 @@ class StudentControllerTests {
 
 	}
 
+	@Test
+	@DisplayName("Reports the outcome of every row when creating a batch of students")
+	void test_createStudents() throws Exception {
+		when(studentService.createStudents(anyList())).thenReturn(
+				List.of(BatchItemResult.created(0, 51L), BatchItemResult.rejected(1, "Email is already taken")));
+
+		mockMvc.perform(post("/api/v1/students/batch").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"name\": \"Abc Xyz\", \"email\": \"abc.xyz@gmail.com\", \"dob\": \"2000-10-06\"},"
+						+ "{\"name\": \"Xyz Abc\", \"email\": \"xyz.abc@gmail.com\", \"dob\": \"2000-06-10\"}]"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].status").value("CREATED")).andExpect(jsonPath("$[0].id").value(51L))
+				.andExpect(jsonPath("$[1].status").value("REJECTED"))
+				.andExpect(jsonPath("$[1].message").value("Email is already taken")).andDo(print());
+
+		verify(studentService).createStudents(anyList());
+	}
+
+	@Test
+	@DisplayName("Payload Too Large when a batch exceeds the maximum batch size")
+	void test_createStudents_tooLarge() throws Exception {
+		when(studentService.createStudents(anyList())).thenThrow(new BatchTooLargeException("Batch is too large"));
+
+		mockMvc.perform(post("/api/v1/students/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+				.andExpect(status().isPayloadTooLarge()).andExpect(jsonPath("$.statusCode").value(413)).andDo(print());
+	}
+
+	@Test
+	@DisplayName("Successfully delete a batch of Students")
+	void test_deleteStudents() throws Exception {
+		when(studentService.deleteStudents(List.of(1L, 2L))).thenReturn(List.of(BatchItemResult.deleted(0, 1L),
+				BatchItemResult.rejected(1, 2L, "Student with id 2 does not exist")));
+
+		mockMvc.perform(delete("/api/v1/students/batch").contentType(MediaType.APPLICATION_JSON).content("[1, 2]"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$[0].status").value("DELETED"))
+				.andExpect(jsonPath("$[1].status").value("REJECTED")).andExpect(jsonPath("$[1].id").value(2L));
+	}
+
+	@Test
+	@DisplayName("Successfully patch a batch of Students")
+	void test_updateStudents() throws Exception {
+		when(studentService.updateStudents(List.of(new StudentPatch(1L, "Xyz", null))))
+				.thenReturn(List.of(BatchItemResult.updated(0, 1L)));
+
+		mockMvc.perform(patch("/api/v1/students/batch").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"id\": 1, \"name\": \"Xyz\"}]")).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status").value("UPDATED")).andExpect(jsonPath("$[0].id").value(1L));
+	}
+
 	@Test
 	@DisplayName("Updates existing student with new name & email")
 	void test_updateStuent_sucess() throws Exception {
@@ -132,6 +444,51 @@ class StudentControllerTests {
 		verify(studentService).updateStudent(13L, "Xyz", "xyz.a@school.com");
 	}
 
+	@Test
+	@DisplayName("Updates the student at the version named by If-Match")
+	void test_updateStudent_ifMatch() throws Exception {
+		String etag = "\"7-" + AgeClock.today().toEpochDay() + "\"";
+
+		mockMvc.perform(put("/api/v1/students/13?name=Xyz").header(HttpHeaders.IF_MATCH, etag))
+				.andExpect(status().isOk());
+
+		verify(studentService).updateStudent(13L, "Xyz", null, 7L);
+	}
+
+	@Test
+	@DisplayName("Updates the student at the If-Match version, when the tag was read on an earlier day")
+	void test_updateStudent_ifMatchEarlierDay() throws Exception {
+		String etag = "\"7-" + AgeClock.today().minusDays(1).toEpochDay() + "\"";
+
+		mockMvc.perform(put("/api/v1/students/13?name=Xyz").header(HttpHeaders.IF_MATCH, etag))
+				.andExpect(status().isOk());
+
+		verify(studentService).updateStudent(13L, "Xyz", null, 7L);
+	}
+
+	@Test
+	@DisplayName("Passes every version listed in If-Match to the update")
+	void test_updateStudent_ifMatchSeveralTags() throws Exception {
+		long today = AgeClock.today().toEpochDay();
+
+		mockMvc.perform(put("/api/v1/students/13?name=Xyz").header(HttpHeaders.IF_MATCH,
+				"\"3-" + today + "\", \"4-" + today + "-cbor\", W/\"5-" + today + "\"")).andExpect(status().isOk());
+
+		verify(studentService).updateStudentAtAnyVersion(13L, "Xyz", null, List.of(3L, 4L, -1L));
+	}
+
+	@Test
+	@DisplayName("Returns Precondition Failed, when the student changed since the If-Match version")
+	void test_updateStudent_preconditionFailed() throws Exception {
+		doThrow(new StudentVersionMismatchException("Student with id 13 has been modified since version 7"))
+				.when(studentService).updateStudent(anyLong(), any(), any(), anyLong());
+
+		mockMvc.perform(put("/api/v1/students/13?name=Xyz").header(HttpHeaders.IF_MATCH, "\"6-1\""))
+				.andExpect(status().isPreconditionFailed()).andExpect(jsonPath("$.statusCode").value(412));
+
+		verify(studentService).updateStudent(13L, "Xyz", null, 6L);
+	}
+
 	@Test
 	@DisplayName("Returns Not Found, when requested student not found for update")
 	void test_updateStuent_notFound() throws Exception {
@@ -163,4 +520,77 @@ class StudentControllerTests {
 		verify(studentService).deleteStudent(deleteStudentId);
 	}
 
+	@Test
+	@DisplayName("Returns Service Unavailable with Retry-After, when every read permit is taken")
+	void test_readsShedWhenLimitReached() throws Exception {
+		int limit = readLimiter.getLimit();
+		long rejected = readLimiter.getRejected();
+		for (int i = 0; i < limit; i++) {
+			assertTrue(readLimiter.tryAcquire());
+		}
+		try {
+			mockMvc.perform(get("/api/v1/students/12")).andExpect(status().isServiceUnavailable())
+					.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+					.andExpect(jsonPath("$.statusCode").value(503)).andDo(print());
+			mockMvc.perform(delete("/api/v1/students/12")).andExpect(status().isOk());
+		} finally {
+			for (int i = 0; i < limit; i++) {
+				readLimiter.release();
+			}
+		}
+
+		verify(studentService).deleteStudent(12L);
+		verifyNoMoreInteractions(studentService);
+		assertEquals(rejected + 1, readLimiter.getRejected());
+	}
+
+	@Test
+	@DisplayName("Accepts a student for asynchronous creation when the client prefers it")
+	void test_submitStudent_accepted() throws Exception {
+		when(studentIngestion.submit(any(Student.class)))
+				.thenReturn(new IngestionStatus("abc-123", IngestionStatus.State.PENDING, null, null));
+
+		mockMvc.perform(post("/api/v1/students").header("Prefer", "respond-async")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"name\":\"Abc Xyz\",\"email\":\"abc.xyz@school.com\",\"dob\":\"1997-12-10\"}"))
+				.andExpect(status().isAccepted())
+				.andExpect(header().string(HttpHeaders.LOCATION, "http://localhost/api/v1/students/ingestions/abc-123"))
+				.andExpect(header().string("Preference-Applied", "respond-async"))
+				.andExpect(jsonPath("$.trackingId").value("abc-123")).andExpect(jsonPath("$.state").value("PENDING"))
+				.andDo(print());
+
+		verify(studentIngestion).submit(any(Student.class));
+		verifyNoInteractions(studentService);
+	}
+
+	@Test
+	@DisplayName("Finds respond-async among other preferences and creates in the request otherwise")
+	void test_createStudent_preferList() throws Exception {
+		when(studentIngestion.submit(any(Student.class)))
+				.thenReturn(new IngestionStatus("abc-123", IngestionStatus.State.PENDING, null, null));
+		String body = "{\"name\":\"Abc Xyz\",\"email\":\"abc.xyz@school.com\",\"dob\":\"1997-12-10\"}";
+
+		mockMvc.perform(post("/api/v1/students").header("Prefer", "return=minimal, Respond-Async; wait=5")
+				.contentType(MediaType.APPLICATION_JSON).content(body)).andExpect(status().isAccepted());
+		mockMvc.perform(post("/api/v1/students").header("Prefer", "return=minimal")
+				.contentType(MediaType.APPLICATION_JSON).content(body)).andExpect(status().isOk())
+				.andExpect(header().doesNotExist("Preference-Applied"));
+
+		verify(studentIngestion).submit(any(Student.class));
+		verify(studentService).createStudent(any(Student.class));
+	}
+
+	@Test
+	@DisplayName("Reports the outcome of an asynchronous creation, or Not Found for an unknown tracking id")
+	void test_getIngestionStatus() throws Exception {
+		when(studentIngestion.findStatus("abc-123"))
+				.thenReturn(Optional.of(new IngestionStatus("abc-123", IngestionStatus.State.CREATED, 7L, null)));
+		when(studentIngestion.findStatus("xyz")).thenReturn(Optional.empty());
+
+		mockMvc.perform(get("/api/v1/students/ingestions/abc-123")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.state").value("CREATED")).andExpect(jsonPath("$.studentId").value(7));
+		mockMvc.perform(get("/api/v1/students/ingestions/xyz")).andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.statusCode").value(404));
+	}
+
 }
@@ -0,0 +1,101 @@
+package me.subhas.sms.student.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import me.subhas.sms.student.data.StudentCsvExporter;
+
+@WebMvcTest(StudentExportController.class)
+class StudentExportControllerTests {
+	private static final String CSV = "id,name,email,dob,age\r\n1,Abc Xyz,abc.xyz@school.com,1997-12-10,28\r\n";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@MockBean
+	private StudentCsvExporter studentCsvExporter;
+
+	@BeforeEach
+	void writeCsv() throws Exception {
+		doAnswer(invocation -> {
+			invocation.getArgument(0, Writer.class).write(CSV);
+			return null;
+		}).when(studentCsvExporter).writeCsv(any());
+	}
+
+	@Test
+	@DisplayName("Streams the students as a CSV attachment")
+	void test_exportStudents() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/v1/students/export")).andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(content().contentType("text/csv;charset=UTF-8"))
+				.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"students.csv\""))
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING)).andExpect(content().string(CSV));
+	}
+
+	@Test
+	@DisplayName("Compresses the CSV when the client accepts gzip")
+	void test_exportStudents_gzip() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/v1/students/export").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		byte[] body = mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip")).andReturn().getResponse()
+				.getContentAsByteArray();
+
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			assertEquals(CSV, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	@DisplayName("Sends the CSV uncompressed when the client gives gzip a quality of 0")
+	void test_exportStudents_gzipRefused() throws Exception {
+		MvcResult result = mockMvc
+				.perform(get("/api/v1/students/export").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0, *;q=0.5"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING)).andExpect(content().string(CSV));
+	}
+
+	@Test
+	@DisplayName("Reads the gzip preference from the coding tokens and their quality values")
+	void test_acceptsGzip() {
+		assertTrue(StudentExportController.acceptsGzip("deflate, gzip;q=0.8"));
+		assertTrue(StudentExportController.acceptsGzip("br;q=1.0, *;q=0.1"));
+		assertTrue(StudentExportController.acceptsGzip("GZIP ; Q=1"));
+		assertFalse(StudentExportController.acceptsGzip("gzip;q=0"));
+		assertFalse(StudentExportController.acceptsGzip("gzip;q=0.000, *"));
+		assertFalse(StudentExportController.acceptsGzip("x-gzipped, br"));
+		assertFalse(StudentExportController.acceptsGzip("*;q=0"));
+		assertFalse(StudentExportController.acceptsGzip("identity"));
+		assertFalse(StudentExportController.acceptsGzip(null));
+	}
+}